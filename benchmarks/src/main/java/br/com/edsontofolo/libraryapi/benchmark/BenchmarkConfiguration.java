@@ -0,0 +1,38 @@
+package br.com.edsontofolo.libraryapi.benchmark;
+
+import br.com.edsontofolo.libraryapi.service.EmailService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Beans que substituem integrações externas durante os benchmarks.
+ * O envio de emails não pode sair para o SMTP configurado em application.properties.
+ */
+@Configuration
+public class BenchmarkConfiguration {
+
+    @Bean
+    @Primary
+    public CountingEmailService countingEmailService() {
+        return new CountingEmailService();
+    }
+
+    public static class CountingEmailService implements EmailService {
+        private final AtomicLong sent = new AtomicLong();
+
+        @Override
+        public CompletableFuture<Void> sendMails(String message, List<String> emails) {
+            sent.addAndGet(emails.size());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        public long getSent() {
+            return sent.get();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.edsontofolo.libraryapi.benchmark;
+
+import br.com.edsontofolo.libraryapi.api.dto.BookDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookControllerBenchmark {
+
+    @Benchmark
+    public Page<BookDTO> find(LibraryApiState state) {
+        BookDTO filter = BookDTO.builder().title("title 12").build();
+        return state.bookController.find(filter, PageRequest.of(0, 20), state.webRequest(null));
+    }
+
+    @Benchmark
+    public BookDTO get(LibraryApiState state) {
+        return state.bookController.get(state.randomBookId(), state.webRequest(null));
+    }
+
+    /**
+     * Cliente repetindo o GET com o ETag da massa inicial (versão 0): responde 304 sem mapear o livro
+     */
+    @Benchmark
+    public BookDTO getNotModified(LibraryApiState state) {
+        return state.bookController.get(state.randomBookId(), state.webRequest("\"0\""));
+    }
+}
@@ -0,0 +1,171 @@
+package br.com.edsontofolo.libraryapi.benchmark;
+
+import br.com.edsontofolo.libraryapi.LibraryApiApplication;
+import br.com.edsontofolo.libraryapi.api.resource.BookController;
+import br.com.edsontofolo.libraryapi.api.resource.LoanController;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.BookAvailabilityService;
+import br.com.edsontofolo.libraryapi.service.BookSearchService;
+import br.com.edsontofolo.libraryapi.service.LoanService;
+import br.com.edsontofolo.libraryapi.service.ScheduleService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sobe a aplicação com o profile "bench" e popula o H2 em memória.
+ *
+ * O tamanho da massa pode ser alterado com -Dbench.books, -Dbench.loans e -Dbench.customers.
+ * Metade dos empréstimos ativos é criada com data atrasada para o job de emails ter trabalho.
+ * Os livros acima de bench.loans ficam livres e são usados pelo benchmark de criação de empréstimos.
+ */
+@State(Scope.Benchmark)
+public class LibraryApiState {
+
+    private static final int SEED_BATCH = 1_000;
+
+    public final int books = Integer.getInteger("bench.books", 10_000);
+    public final int loans = Integer.getInteger("bench.loans", 5_000);
+    public final int customers = Integer.getInteger("bench.customers", 500);
+
+    public ConfigurableApplicationContext context;
+    public BookController bookController;
+    public LoanController loanController;
+    public LoanService loanService;
+    public ScheduleService scheduleService;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<String> freeIsbns = new ArrayList<>();
+    private final AtomicInteger nextFreeIsbn = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void start() {
+        startWith();
+    }
+
+    /**
+     * @param args argumentos do Spring Boot (--propriedade=valor) que sobrescrevem o application-bench.properties
+     */
+    public void startWith(String... args) {
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .profiles("bench")
+                .run(args);
+
+        bookController = context.getBean(BookController.class);
+        loanController = context.getBean(LoanController.class);
+        loanService = context.getBean(LoanService.class);
+        scheduleService = context.getBean(ScheduleService.class);
+
+        seed(context.getBean(BookRepository.class), context.getBean(LoanRepository.class));
+        // os empréstimos semeados não passam pelo LoanService, nem os livros pelo BookService
+        context.getBean(BookAvailabilityService.class).rebuild();
+        context.getBean(BookSearchService.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /**
+     * @param ifNoneMatch ETag enviado pelo cliente, ou null para um GET sem cabeçalhos condicionais
+     */
+    public WebRequest webRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    public Long randomBookId() {
+        return bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size()));
+    }
+
+    public String randomCustomer() {
+        return customer(ThreadLocalRandom.current().nextInt(customers));
+    }
+
+    /**
+     * Isbns dos livros sem empréstimo na massa inicial
+     */
+    public List<String> getFreeIsbns() {
+        return Collections.unmodifiableList(freeIsbns);
+    }
+
+    public String nextFreeIsbn() {
+        return freeIsbns.get(Math.floorMod(nextFreeIsbn.getAndIncrement(), freeIsbns.size()));
+    }
+
+    public void returnLoan(Long id) {
+        loanService.findById(id).ifPresent(loan -> {
+            loan.setReturned(true);
+            loanService.update(loan);
+        });
+    }
+
+    private void seed(BookRepository bookRepository, LoanRepository loanRepository) {
+        LocalDate today = LocalDate.now();
+        List<Book> bookBatch = new ArrayList<>(SEED_BATCH);
+        List<Loan> loanBatch = new ArrayList<>(SEED_BATCH);
+
+        for (int i = 0; i < books; i++) {
+            bookBatch.add(Book.builder()
+                    .title("Book title " + i)
+                    .author("Author " + (i % 100))
+                    .isbn(isbn(i))
+                    .build());
+
+            if (bookBatch.size() == SEED_BATCH || i == books - 1) {
+                for (Book book : bookRepository.saveAll(bookBatch)) {
+                    bookIds.add(book.getId());
+
+                    int index = bookIds.size() - 1;
+                    if (index < loans) {
+                        boolean active = index % 2 == 0;
+                        boolean late = active && index % 4 == 0;
+                        loanBatch.add(Loan.builder()
+                                .book(book)
+                                .customer(customer(index % customers))
+                                .customerEmail(customer(index % customers) + "@library-api.com")
+                                .loanDate(late ? today.minusDays(10) : today)
+                                .returned(!active)
+                                .build());
+                    } else {
+                        freeIsbns.add(book.getIsbn());
+                    }
+                }
+                loanRepository.saveAll(loanBatch);
+                bookBatch.clear();
+                loanBatch.clear();
+            }
+        }
+    }
+
+    private static String isbn(int i) {
+        return "isbn-" + i;
+    }
+
+    private static String customer(int i) {
+        return "customer-" + i;
+    }
+}
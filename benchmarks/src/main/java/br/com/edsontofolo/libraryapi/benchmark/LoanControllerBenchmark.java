@@ -0,0 +1,100 @@
+package br.com.edsontofolo.libraryapi.benchmark;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanBatchResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoanControllerBenchmark {
+
+    private static final int BATCH_SIZE = Integer.getInteger("bench.loan-batch", 20);
+
+    /**
+     * Devolve o livro emprestado fora da medição, para que o próximo create encontre o livro livre.
+     */
+    @State(Scope.Thread)
+    public static class CreatedLoan {
+        Long id;
+
+        @TearDown(Level.Invocation)
+        public void giveBack(LibraryApiState state) {
+            if (id != null) {
+                state.returnLoan(id);
+                id = null;
+            }
+        }
+    }
+
+    @Benchmark
+    public Long create(LibraryApiState state, CreatedLoan createdLoan) {
+        String customer = state.randomCustomer();
+        LoanDTO dto = LoanDTO.builder()
+                .isbn(state.nextFreeIsbn())
+                .customer(customer)
+                .email(customer + "@library-api.com")
+                .build();
+        createdLoan.id = state.loanController.create(dto);
+        return createdLoan.id;
+    }
+
+    /**
+     * Mesma ideia do CreatedLoan para os empréstimos criados por um lote
+     */
+    @State(Scope.Thread)
+    public static class CreatedBatch {
+        final List<Long> ids = new ArrayList<>();
+
+        @TearDown(Level.Invocation)
+        public void giveBack(LibraryApiState state) {
+            ids.forEach(state::returnLoan);
+            ids.clear();
+        }
+    }
+
+    @Benchmark
+    public List<LoanBatchResultDTO> createBatch(LibraryApiState state, CreatedBatch createdBatch) {
+        List<LoanDTO> loans = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String customer = state.randomCustomer();
+            loans.add(LoanDTO.builder()
+                    .isbn(state.nextFreeIsbn())
+                    .customer(customer)
+                    .email(customer + "@library-api.com")
+                    .build());
+        }
+        List<LoanBatchResultDTO> results = state.loanController.createBatch(loans);
+        results.stream().map(LoanBatchResultDTO::getId).filter(Objects::nonNull).forEach(createdBatch.ids::add);
+        return results;
+    }
+
+    @Benchmark
+    public Page<LoanDTO> find(LibraryApiState state) {
+        LoanFilterDTO filter = LoanFilterDTO.builder()
+                .isbn("isbn-42")
+                .customer(state.randomCustomer())
+                .build();
+        return state.loanController.find(filter, PageRequest.of(0, 20));
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.edsontofolo.libraryapi.benchmark;
+
+import br.com.edsontofolo.libraryapi.api.dto.BookDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanDTO;
+import br.com.edsontofolo.libraryapi.api.mapper.BookMapper;
+import br.com.edsontofolo.libraryapi.api.mapper.LoanMapper;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de mapear um elemento da página: ModelMapper (como era feito nos controllers) x mappers do MapStruct.
+ * Roda sem subir o contexto do Spring.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private BookMapper bookMapper;
+    private LoanMapper loanMapper;
+    private Book book;
+    private Loan loan;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        bookMapper = Mappers.getMapper(BookMapper.class);
+        loanMapper = Mappers.getMapper(LoanMapper.class);
+
+        book = Book.builder().id(1L).title("Book title 1").author("Author 1").isbn("isbn-1").build();
+        loan = Loan.builder()
+                .id(1L)
+                .book(book)
+                .customer("customer-1")
+                .customerEmail("customer-1@library-api.com")
+                .loanDate(LocalDate.now())
+                .build();
+    }
+
+    @Benchmark
+    public BookDTO bookModelMapper() {
+        return modelMapper.map(book, BookDTO.class);
+    }
+
+    @Benchmark
+    public BookDTO bookMapStruct() {
+        return bookMapper.toDTO(book);
+    }
+
+    /**
+     * Mesmo fluxo que os controllers faziam: o livro e o empréstimo mapeados separadamente.
+     */
+    @Benchmark
+    public LoanDTO loanModelMapper() {
+        BookDTO bookDTO = modelMapper.map(loan.getBook(), BookDTO.class);
+        LoanDTO loanDTO = modelMapper.map(loan, LoanDTO.class);
+        loanDTO.setBook(bookDTO);
+        return loanDTO;
+    }
+
+    @Benchmark
+    public LoanDTO loanMapStruct() {
+        return loanMapper.toDTO(loan);
+    }
+}
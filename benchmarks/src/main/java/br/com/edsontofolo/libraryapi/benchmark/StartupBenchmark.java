@@ -0,0 +1,67 @@
+package br.com.edsontofolo.libraryapi.benchmark;
+
+import br.com.edsontofolo.libraryapi.LibraryApiApplication;
+import br.com.edsontofolo.libraryapi.loadtest.HttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo da subida até a primeira requisição respondida com sucesso, com e sem o profile fast-start.
+ *
+ * Uma medição por fork: só a primeira subida da JVM paga o carregamento das classes. O tempo da própria JVM fica
+ * de fora; para medir com o arquivo de CDS, passar -jvmArgsAppend com o -XX:SharedArchiveFile.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private static final int MAX_ATTEMPTS = 1_000;
+
+    @Param({"bench", "bench,fast-start"})
+    public String profiles;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public int timeToFirstRequest() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .profiles(profiles.split(","))
+                .run();
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        HttpClient client = new HttpClient(port);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int status = client.get("/api/books?page=0&size=1").getStatus();
+            if (status == 200) {
+                return status;
+            }
+            Thread.sleep(1);
+        }
+        throw new IllegalStateException("No successful request after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
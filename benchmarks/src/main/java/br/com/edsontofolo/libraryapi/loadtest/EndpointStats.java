@@ -0,0 +1,73 @@
+package br.com.edsontofolo.libraryapi.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latências de uma operação num Recorder do HdrHistogram (gravação concorrente sem lock), em microssegundos.
+ * As respostas 429 e 503 do limite de concorrência são contadas à parte dos erros.
+ */
+public class EndpointStats {
+
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    private final Operation operation;
+    private final Recorder recorder = new Recorder(3);
+    private final LongAdder success = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public EndpointStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * @param status status HTTP, ou -1 quando a requisição falhou sem resposta
+     */
+    public void record(long latencyNanos, int status) {
+        recorder.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (status >= 200 && status < 400) {
+            success.increment();
+        } else if (status == 429 || status == 503) {
+            rejected.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Resumo para o relatório; chamado uma vez, no fim da medição
+     */
+    public Map<String, Object> report(double seconds) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("endpoint", operation.getEndpoint());
+        report.put("requests", histogram.getTotalCount());
+        report.put("success", success.sum());
+        report.put("rejected", rejected.sum());
+        report.put("errors", errors.sum());
+        report.put("throughput", round(histogram.getTotalCount() / seconds));
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+        latency.put("p90", millis(histogram.getValueAtPercentile(90)));
+        latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+        latency.put("p99.9", millis(histogram.getValueAtPercentile(99.9)));
+        latency.put("max", millis(histogram.getMaxValue()));
+        latency.put("mean", round(histogram.getMean() / MICROS_PER_MILLI));
+        report.put("latencyMillis", latency);
+        return report;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / MICROS_PER_MILLI);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
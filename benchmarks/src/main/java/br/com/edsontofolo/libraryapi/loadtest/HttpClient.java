@@ -0,0 +1,111 @@
+package br.com.edsontofolo.libraryapi.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cliente HTTP mínimo sobre o HttpURLConnection, que reaproveita as conexões (keep-alive) desde que o corpo da
+ * resposta seja lido até o fim.
+ */
+public class HttpClient {
+
+    private static final Field METHOD_FIELD = methodField();
+
+    private final String baseUrl;
+
+    public HttpClient(int port) {
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    public Response get(String path) throws IOException {
+        return send("GET", path, null);
+    }
+
+    public Response post(String path, String json) throws IOException {
+        return send("POST", path, json);
+    }
+
+    public Response patch(String path, String json) throws IOException {
+        return send("PATCH", path, json);
+    }
+
+    private Response send(String method, String path, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        setMethod(connection, method);
+        connection.setRequestProperty("Accept", "application/json");
+        if (json != null) {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        return new Response(status, in == null ? "" : readFully(in));
+    }
+
+    /**
+     * O HttpURLConnection não aceita PATCH no setRequestMethod, mas envia qualquer método que estiver no campo
+     */
+    private static void setMethod(HttpURLConnection connection, String method) throws ProtocolException {
+        if (!"PATCH".equals(method)) {
+            connection.setRequestMethod(method);
+            return;
+        }
+        try {
+            METHOD_FIELD.set(connection, method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Field methodField() {
+        try {
+            Field field = HttpURLConnection.class.getDeclaredField("method");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        try (InputStream body = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public static class Response {
+        private final int status;
+        private final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+}
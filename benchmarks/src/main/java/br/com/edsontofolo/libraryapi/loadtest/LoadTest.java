@@ -0,0 +1,263 @@
+package br.com.edsontofolo.libraryapi.loadtest;
+
+import br.com.edsontofolo.libraryapi.benchmark.LibraryApiState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga HTTP contra a aplicação rodando com o H2 populado pelo LibraryApiState.
+ *
+ * As requisições são iniciadas numa taxa fixa, independente das respostas (modelo aberto), e a latência é contada
+ * a partir do horário em que a requisição deveria ter saído. Assim a espera na fila quando o servidor não acompanha
+ * a taxa aparece no p99, em vez de o gerador simplesmente desacelerar (omissão coordenada).
+ * O que ainda estiver na fila SHUTDOWN_TIMEOUT_SECONDS depois da última requisição é descartado e contado em
+ * "dropped", e as requisições ainda rodando quando o relatório é escrito em "unfinished".
+ *
+ * Executar com:
+ * mvn -f benchmarks/pom.xml compile exec:exec -Ploadtest -Dload.args="rate=500 duration=2m"
+ */
+public class LoadTest {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final LoadTestOptions options;
+    private final LibraryApiState state;
+    private final HttpClient client;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final Queue<String> freeIsbns;
+    private final Queue<OpenLoan> openLoans = new ConcurrentLinkedQueue<>();
+    private final LongAdder ioFailures = new LongAdder();
+    private final LongAdder runtimeFailures = new LongAdder();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Operation[] weightedOperations;
+
+    LoadTest(LoadTestOptions options, LibraryApiState state, int port) {
+        this.options = options;
+        this.state = state;
+        this.client = new HttpClient(port);
+        this.freeIsbns = new ConcurrentLinkedQueue<>(state.getFreeIsbns());
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats(operation));
+        }
+        List<Operation> weighted = new ArrayList<>();
+        options.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        this.weightedOperations = weighted.toArray(new Operation[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        LibraryApiState state = new LibraryApiState();
+        state.startWith(options.getSpringArgs().toArray(new String[0]));
+        try {
+            int port = state.context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            new LoadTest(options, state, port).run();
+        } finally {
+            state.stop();
+        }
+    }
+
+    void run() throws InterruptedException, IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.getThreads());
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.getRate());
+        long start = System.nanoTime();
+        long measureStart = start + options.getWarmup().toNanos();
+        long end = measureStart + options.getDuration().toNanos();
+
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            workers.execute(new Request(intended, intended >= measureStart));
+        }
+
+        long dropped = 0;
+        workers.shutdown();
+        if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            dropped = workers.shutdownNow().stream().filter(request -> ((Request) request).measured).count();
+            // as que já estavam rodando terminam antes do relatório; o HttpURLConnection não atende ao interrupt
+            workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        writeReport(options.getDuration().toMillis() / 1000.0, dropped);
+    }
+
+    private Operation pickOperation() {
+        return weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+    }
+
+    private void execute(Operation operation, long intendedNanos, boolean measured) {
+        running.incrementAndGet();
+        Operation executed = operation;
+        int status;
+        try {
+            switch (operation) {
+                case CREATE_LOAN:
+                case RETURN_LOAN:
+                    // sem empréstimo aberto, empresta um livro; sem livro livre, devolve um empréstimo
+                    OpenLoan loan = operation == Operation.RETURN_LOAN ? openLoans.poll() : null;
+                    String isbn = loan == null ? freeIsbns.poll() : null;
+                    if (loan == null && isbn == null) {
+                        loan = openLoans.poll();
+                    }
+                    if (loan != null) {
+                        executed = Operation.RETURN_LOAN;
+                        status = returnLoan(loan);
+                    } else if (isbn != null) {
+                        executed = Operation.CREATE_LOAN;
+                        status = createLoan(isbn);
+                    } else {
+                        // todos os livros livres com requisição em andamento: massa pequena demais para a taxa
+                        executed = Operation.GET_BOOK;
+                        status = getBook();
+                    }
+                    break;
+                default:
+                    status = read(operation);
+            }
+        } catch (IOException e) {
+            ioFailures.increment();
+            status = -1;
+        } catch (RuntimeException e) {
+            // resposta inesperada (corpo do POST sem id, por exemplo): conta como erro sem matar a thread
+            runtimeFailures.increment();
+            status = -1;
+        }
+        if (measured) {
+            stats.get(executed).record(System.nanoTime() - intendedNanos, status);
+        }
+        running.decrementAndGet();
+    }
+
+    private int read(Operation operation) throws IOException {
+        switch (operation) {
+            case SEARCH_BOOKS:
+                return client.get("/api/books/search?q=title+" + ThreadLocalRandom.current().nextInt(state.books)).getStatus();
+            case GET_BOOK:
+                return getBook();
+            default:
+                return client.get("/api/loans?customer=" + state.randomCustomer()).getStatus();
+        }
+    }
+
+    private int getBook() throws IOException {
+        return client.get("/api/books/" + state.randomBookId()).getStatus();
+    }
+
+    private int createLoan(String isbn) throws IOException {
+        String customer = state.randomCustomer();
+        HttpClient.Response response = client.post("/api/loans", "{\"isbn\":\"" + isbn + "\",\"customer\":\""
+                + customer + "\",\"email\":\"" + customer + "@library-api.com\"}");
+        if (response.getStatus() == 201) {
+            openLoans.add(new OpenLoan(Long.valueOf(response.getBody().trim()), isbn));
+        } else {
+            freeIsbns.add(isbn);
+        }
+        return response.getStatus();
+    }
+
+    private int returnLoan(OpenLoan loan) throws IOException {
+        int status = client.patch("/api/loans/" + loan.id, "{\"returned\":true}").getStatus();
+        if (status < 400) {
+            freeIsbns.add(loan.isbn);
+        } else {
+            openLoans.add(loan);
+        }
+        return status;
+    }
+
+    private void writeReport(double seconds, long dropped) throws IOException {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("rate", options.getRate());
+        config.put("warmupSeconds", options.getWarmup().getSeconds());
+        config.put("durationSeconds", options.getDuration().getSeconds());
+        config.put("threads", options.getThreads());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.getMix().forEach((operation, weight) -> mix.put(operation.getName(), weight));
+        config.put("mix", mix);
+        config.put("books", state.books);
+        config.put("loans", state.loans);
+        config.put("customers", state.customers);
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((operation, endpointStats) -> endpoints.put(operation.getName(), endpointStats.report(seconds)));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("config", config);
+        report.put("ioFailures", ioFailures.sum());
+        report.put("runtimeFailures", runtimeFailures.sum());
+        report.put("dropped", dropped);
+        report.put("unfinished", running.get());
+        report.put("endpoints", endpoints);
+
+        File file = new File(options.getReport());
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        printSummary(report, endpoints, file);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printSummary(Map<String, Object> report, Map<String, Object> endpoints, File file) {
+        System.out.printf("%-12s %10s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "req/s", "errors", "rejected", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        endpoints.forEach((name, value) -> {
+            Map<String, Object> endpoint = (Map<String, Object>) value;
+            Map<String, Object> latency = (Map<String, Object>) endpoint.get("latencyMillis");
+            System.out.printf("%-12s %10s %9s %9s %9s %9s %9s %9s%n", name, endpoint.get("throughput"),
+                    endpoint.get("errors"), endpoint.get("rejected"), latency.get("p50"), latency.get("p99"),
+                    latency.get("p99.9"), latency.get("max"));
+        });
+        System.out.printf("io failures: %s, runtime failures: %s, dropped: %s, unfinished: %s%n", report.get("ioFailures"),
+                report.get("runtimeFailures"), report.get("dropped"), report.get("unfinished"));
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    private class Request implements Runnable {
+        private final long intendedNanos;
+        private final boolean measured;
+
+        Request(long intendedNanos, boolean measured) {
+            this.intendedNanos = intendedNanos;
+            this.measured = measured;
+        }
+
+        @Override
+        public void run() {
+            execute(pickOperation(), intendedNanos, measured);
+        }
+    }
+
+    private static class OpenLoan {
+        private final Long id;
+        private final String isbn;
+
+        OpenLoan(Long id, String isbn) {
+            this.id = id;
+            this.isbn = isbn;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.edsontofolo.libraryapi.loadtest;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Argumentos no formato nome=valor; os que começam com "--" vão para o Spring Boot
+ * (por exemplo --application.concurrency.enabled=false).
+ *
+ * rate: requisições por segundo iniciadas, independente de quantas ainda estão em andamento (modelo aberto)
+ * warmup e duration: tempo de aquecimento, fora do relatório, e de medição (10s, 2m, 500ms)
+ * threads: requisições simultâneas no máximo; as que passam disso esperam na fila e a espera entra na latência
+ * mix: peso de cada operação, por exemplo searchBooks:25,getBook:35,findLoans:15,createLoan:15,returnLoan:10
+ * report: arquivo JSON com o resultado
+ */
+@Getter
+public class LoadTestOptions {
+
+    private double rate = 200;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+    private int threads = 200;
+    private Map<Operation, Integer> mix = parseMix("searchBooks:25,getBook:35,findLoans:15,createLoan:15,returnLoan:10");
+    private String report = "target/loadtest-report.json";
+    private final List<String> springArgs = new ArrayList<>();
+
+    public static LoadTestOptions parse(String... args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                options.springArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value: " + arg);
+            }
+            String name = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "warmup":
+                    options.warmup = parseDuration(value);
+                    break;
+                case "duration":
+                    options.duration = parseDuration(value);
+                    break;
+                case "threads":
+                    options.threads = Integer.parseInt(value);
+                    break;
+                case "mix":
+                    options.mix = parseMix(value);
+                    break;
+                case "report":
+                    options.report = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        if (options.rate <= 0 || options.threads <= 0 || options.mix.isEmpty()) {
+            throw new IllegalArgumentException("rate, threads and mix must be positive");
+        }
+        return options;
+    }
+
+    static Duration parseDuration(String value) {
+        String lower = value.trim().toLowerCase();
+        if (lower.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(lower.substring(0, lower.length() - 2)));
+        }
+        long amount = Long.parseLong(lower.substring(0, lower.length() - 1));
+        switch (lower.charAt(lower.length() - 1)) {
+            case 's':
+                return Duration.ofSeconds(amount);
+            case 'm':
+                return Duration.ofMinutes(amount);
+            case 'h':
+                return Duration.ofHours(amount);
+            default:
+                throw new IllegalArgumentException("Invalid duration: " + value);
+        }
+    }
+
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.fromName(parts[0].trim()), weight);
+            }
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.edsontofolo.libraryapi.loadtest;
+
+/**
+ * Operações do mix, com o nome usado nos argumentos e no relatório
+ */
+public enum Operation {
+    SEARCH_BOOKS("searchBooks", "GET /api/books/search"),
+    GET_BOOK("getBook", "GET /api/books/{id}"),
+    FIND_LOANS("findLoans", "GET /api/loans"),
+    CREATE_LOAN("createLoan", "POST /api/loans"),
+    RETURN_LOAN("returnLoan", "PATCH /api/loans/{id}");
+
+    private final String name;
+    private final String endpoint;
+
+    Operation(String name, String endpoint) {
+        this.name = name;
+        this.endpoint = endpoint;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public static Operation fromName(String name) {
+        for (Operation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+}
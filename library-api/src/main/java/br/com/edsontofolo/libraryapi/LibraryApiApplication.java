@@ -1,11 +1,14 @@
 package br.com.edsontofolo.libraryapi;
 
+import br.com.edsontofolo.libraryapi.api.mapper.BookMapper;
+import br.com.edsontofolo.libraryapi.api.mapper.LoanMapper;
 import br.com.edsontofolo.libraryapi.service.EmailService;
-import org.modelmapper.ModelMapper;
+import org.mapstruct.factory.Mappers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -14,14 +17,20 @@ import java.util.List;
 
 @SpringBootApplication
 @EnableScheduling
+@EnableCaching
 public class LibraryApiApplication {
 	/**
 	 * Singleton
-	 * @return
+	 * @return implementação gerada pelo MapStruct
 	 */
 	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
+	public BookMapper bookMapper() {
+		return Mappers.getMapper(BookMapper.class);
+	}
+
+	@Bean
+	public LoanMapper loanMapper() {
+		return Mappers.getMapper(LoanMapper.class);
 	}
 
 	/* Code just to test
@@ -0,0 +1,25 @@
+package br.com.edsontofolo.libraryapi.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de uma linha do arquivo enviado para /api/books/bulk
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookImportResultDTO {
+    public enum Status { CREATED, DUPLICATED, INVALID }
+
+    private long line;
+    private Status status;
+    private String isbn;
+    private Long id;
+    private String error;
+}
@@ -0,0 +1,79 @@
+package br.com.edsontofolo.libraryapi.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Página do modo cursor (?after=&size=): sem total de elementos e sem número de página.
+ * O cursor é opaco para o cliente, basta repassar o "next" no parâmetro "after" da próxima chamada.
+ * Quando "next" vem nulo não existem mais elementos. A ordem é sempre a do id, então o parâmetro "sort" é recusado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    public static final int MAX_SIZE = 1000;
+
+    private static final String VERSION = "v1:";
+
+    private List<T> content;
+    private String next;
+
+    /**
+     * @param items até size + 1 itens ordenados pelo id, o item a mais indica que existe próxima página
+     */
+    public static <E, T> CursorPageDTO<T> of(List<E> items, int size, Function<E, Long> idOf, Function<E, T> mapper) {
+        boolean hasNext = items.size() > size;
+        List<E> page = hasNext ? items.subList(0, size) : items;
+        String next = hasNext ? encode(idOf.apply(page.get(page.size() - 1))) : null;
+        return new CursorPageDTO<>(page.stream().map(mapper).collect(Collectors.toList()), next);
+    }
+
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((VERSION + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return último id da página anterior, ou null para a primeira página (after vazio)
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(VERSION)) {
+                throw new IllegalArgumentException(value);
+            }
+            return Long.valueOf(value.substring(VERSION.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /**
+     * O cursor guarda só o último id: outra ordem faria a próxima página pular ou repetir elementos
+     */
+    public static void requireUnsorted(List<String> sort) {
+        if (sort != null && sort.stream().anyMatch(value -> !value.trim().isEmpty())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sort is not supported with a cursor");
+        }
+    }
+
+    public static int limit(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be between 1 and " + MAX_SIZE);
+        }
+        return size + 1;
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.edsontofolo.libraryapi.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de um item enviado para /api/loans/batch, na mesma posição (index) da requisição
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LoanBatchResultDTO {
+    public enum Status { CREATED, INVALID, BOOK_NOT_FOUND, UNAVAILABLE }
+
+    private int index;
+    private Status status;
+    private String isbn;
+    private Long id;
+    private String error;
+}
@@ -0,0 +1,29 @@
+package br.com.edsontofolo.libraryapi.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros opcionais da busca de empréstimos; só os informados entram na consulta.
+ * Isbn e cliente juntos continuam sendo um "ou" (isbn do livro ou cliente), combinado com os demais por "e".
+ * As datas são inclusivas e comparadas com a data do empréstimo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LoanFilterDTO {
+    private String isbn;
+    private String customer;
+    private Long bookId;
+    private Boolean returned;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+}
@@ -0,0 +1,28 @@
+package br.com.edsontofolo.libraryapi.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de /api/loans/returns: ids devolvidos agora, ids inexistentes ou já devolvidos
+ * e isbns sem empréstimo em aberto
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanReturnResultDTO {
+    @Builder.Default
+    private List<Long> returned = new ArrayList<>();
+    @Builder.Default
+    private List<Long> notFound = new ArrayList<>();
+    @Builder.Default
+    private List<Long> alreadyReturned = new ArrayList<>();
+    @Builder.Default
+    private List<String> notLoaned = new ArrayList<>();
+}
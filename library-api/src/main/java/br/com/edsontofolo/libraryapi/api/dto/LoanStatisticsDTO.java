@@ -5,11 +5,15 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * Total de empréstimos, os que estão em aberto e, destes, os atrasados
+ */
 @Data
-@AllArgsConstructor
-@NoArgsConstructor
 @Builder
-public class LoanFilterDTO {
-    private String isbn;
-    private String customer;
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanStatisticsDTO {
+    private long total;
+    private long active;
+    private long overdue;
 }
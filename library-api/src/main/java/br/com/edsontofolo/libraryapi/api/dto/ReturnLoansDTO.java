@@ -0,0 +1,20 @@
+package br.com.edsontofolo.libraryapi.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Empréstimos a devolver em lote, pelo id do empréstimo ou pelo isbn do livro emprestado
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReturnLoansDTO {
+    private List<Long> ids;
+    private List<String> isbns;
+}
@@ -0,0 +1,185 @@
+package br.com.edsontofolo.libraryapi.api.filter;
+
+import br.com.edsontofolo.libraryapi.config.ConcurrencyLimitProperties;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência (algoritmo de gradiente, como o Gradient2 do
+ * concurrency-limits da Netflix): a cada janela compara a latência média da janela com a média de longo prazo.
+ * Se a latência sobe (fila se formando no pool de conexões), o limite cai na mesma proporção; se está estável,
+ * o limite cresce em raiz quadrada do limite atual.
+ *
+ * Cada prioridade só ocupa uma fração do limite, então as vagas restantes ficam para as prioridades maiores.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    /**
+     * Peso de cada janela na latência de longo prazo
+     */
+    private static final double LONG_RTT_WEIGHT = 0.05;
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, LongAdder> accepted = new EnumMap<>(Priority.class);
+    private final Map<Priority, LongAdder> rejected = new EnumMap<>(Priority.class);
+    private volatile int limit;
+
+    // guardados pelo monitor do limiter
+    private double estimatedLimit;
+    private double longRtt;
+    private double lastRtt;
+    private long windowSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.estimatedLimit = properties.getInitialLimit();
+        this.limit = properties.getInitialLimit();
+        for (Priority priority : Priority.values()) {
+            accepted.put(priority, new LongAdder());
+            rejected.put(priority, new LongAdder());
+        }
+    }
+
+    /**
+     * @return a vaga, que deve ser liberada no fim da requisição, ou null se a prioridade já ocupou a fração dela
+     */
+    public Permit tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * share(priority)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.get(priority).increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.get(priority).increment();
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    /**
+     * Todas as vagas ocupadas: a recusa é sobrecarga do servidor, não só corte de prioridade
+     */
+    public boolean isSaturated() {
+        return inFlight.get() >= limit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Snapshot snapshot() {
+        Map<Priority, Long> acceptedCounts = new EnumMap<>(Priority.class);
+        Map<Priority, Long> rejectedCounts = new EnumMap<>(Priority.class);
+        accepted.forEach((priority, count) -> acceptedCounts.put(priority, count.sum()));
+        rejected.forEach((priority, count) -> rejectedCounts.put(priority, count.sum()));
+        synchronized (this) {
+            return Snapshot.builder()
+                    .limit(limit)
+                    .inFlight(inFlight.get())
+                    .minLimit(properties.getMinLimit())
+                    .maxLimit(properties.getMaxLimit())
+                    .shortRttMillis(lastRtt / TimeUnit.MILLISECONDS.toNanos(1))
+                    .longRttMillis(longRtt / TimeUnit.MILLISECONDS.toNanos(1))
+                    .accepted(acceptedCounts)
+                    .rejected(rejectedCounts)
+                    .build();
+        }
+    }
+
+    private double share(Priority priority) {
+        switch (priority) {
+            case HIGH:
+                return 1;
+            case LOW:
+                return properties.getLowShare();
+            default:
+                return properties.getNormalShare();
+        }
+    }
+
+    private synchronized void sample(long rttNanos, int concurrency) {
+        windowSum += rttNanos;
+        windowCount++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, concurrency);
+        if (windowCount < properties.getWindowSize()) {
+            return;
+        }
+        double shortRtt = (double) windowSum / windowCount;
+        int maxInFlight = windowMaxInFlight;
+        windowSum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+
+        lastRtt = shortRtt;
+        longRtt = longRtt == 0 ? shortRtt : longRtt * (1 - LONG_RTT_WEIGHT) + shortRtt * LONG_RTT_WEIGHT;
+        // depois de um pico a média longa fica alta demais e esconderia a próxima fila; volta para perto da atual
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // com menos da metade das vagas em uso a latência não diz nada sobre o limite
+        if (maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+        estimatedLimit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public class Permit {
+        private final int concurrency;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        /**
+         * Libera a vaga e usa a latência da requisição no cálculo do limite
+         */
+        public void release(long rttNanos) {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                sample(rttNanos, concurrency);
+            }
+        }
+
+        /**
+         * Libera a vaga sem amostra (erro ou requisição longa demais para representar a latência)
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    @Value
+    @Builder
+    public static class Snapshot {
+        int limit;
+        int inFlight;
+        int minLimit;
+        int maxLimit;
+        double shortRttMillis;
+        double longRttMillis;
+        Map<Priority, Long> accepted;
+        Map<Priority, Long> rejected;
+    }
+}
@@ -0,0 +1,22 @@
+package br.com.edsontofolo.libraryapi.api.filter;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * /actuator/concurrency: limite atual, vagas ocupadas, latências e requisições aceitas/recusadas por prioridade
+ */
+@Endpoint(id = "concurrency")
+public class ConcurrencyLimitEndpoint {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitEndpoint(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @ReadOperation
+    public AdaptiveConcurrencyLimiter.Snapshot concurrency() {
+        return limiter.snapshot();
+    }
+}
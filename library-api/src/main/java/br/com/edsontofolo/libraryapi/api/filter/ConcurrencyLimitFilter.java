@@ -0,0 +1,137 @@
+package br.com.edsontofolo.libraryapi.api.filter;
+
+import br.com.edsontofolo.libraryapi.api.filter.AdaptiveConcurrencyLimiter.Permit;
+import br.com.edsontofolo.libraryapi.api.filter.AdaptiveConcurrencyLimiter.Priority;
+import br.com.edsontofolo.libraryapi.config.ConcurrencyLimitProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Recusa na hora, com Retry-After, as requisições acima do limite do AdaptiveConcurrencyLimiter em vez de
+ * deixá-las esperando conexão no pool do Hikari até todas estourarem o timeout.
+ *
+ * 503 quando todas as vagas estão ocupadas; 429 quando ainda há vagas, mas reservadas para prioridades maiores.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ConcurrencyLimitProperties properties;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ConcurrencyLimitProperties properties) {
+        this.limiter = limiter;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Priority priority = priority(request);
+        Permit permit = limiter.tryAcquire(priority);
+        if (permit == null) {
+            reject(response, limiter.isSaturated() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS);
+            return;
+        }
+
+        boolean sampled = !matches(properties.getUnsampled(), request);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(permit, start, sampled));
+            } else {
+                release(permit, start, sampled && !failed && response.getStatus() < 500);
+            }
+        }
+    }
+
+    Priority priority(HttpServletRequest request) {
+        if (matches(properties.getHigh(), request)) {
+            return Priority.HIGH;
+        }
+        if (matches(properties.getLow(), request)) {
+            return Priority.LOW;
+        }
+        return Priority.NORMAL;
+    }
+
+    /**
+     * Cada regra é "MÉTODO /padrão", por exemplo "GET /api/books/**"
+     */
+    private boolean matches(List<String> rules, HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String rule : rules) {
+            String[] parts = rule.trim().split("\\s+", 2);
+            if (parts.length == 2 && parts[0].equalsIgnoreCase(request.getMethod()) && matcher.match(parts[1], path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, properties.getRetryAfter().getSeconds())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        // mesmo formato do ApiErrors
+        response.getWriter().write("{\"errors\":[\"" + status.getReasonPhrase() + "\"]}");
+    }
+
+    private static void release(Permit permit, long start, boolean sampled) {
+        if (sampled) {
+            permit.release(System.nanoTime() - start);
+        } else {
+            permit.release();
+        }
+    }
+
+    private static class ReleaseListener implements AsyncListener {
+        private final Permit permit;
+        private final long start;
+        private final boolean sampled;
+
+        ReleaseListener(Permit permit, long start, boolean sampled) {
+            this.permit = permit;
+            this.start = start;
+            this.sampled = sampled;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            release(permit, start, sampled && response.getStatus() < 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
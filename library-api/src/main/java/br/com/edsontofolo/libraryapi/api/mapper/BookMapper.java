@@ -0,0 +1,21 @@
+package br.com.edsontofolo.libraryapi.api.mapper;
+
+import br.com.edsontofolo.libraryapi.api.dto.BookDTO;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Implementação gerada pelo MapStruct em tempo de compilação (BookMapperImpl),
+ * sem reflection em tempo de execução.
+ */
+@Mapper
+public interface BookMapper {
+
+    BookDTO toDTO(Book book);
+
+    @Mapping(target = "loans", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
+    Book toEntity(BookDTO dto);
+}
@@ -0,0 +1,33 @@
+package br.com.edsontofolo.libraryapi.api.mapper;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanDTO;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(uses = BookMapper.class)
+public interface LoanMapper {
+
+    @Mapping(target = "isbn", source = "book.isbn")
+    @Mapping(target = "email", source = "customerEmail")
+    LoanDTO toDTO(Loan loan);
+
+    @Mapping(target = "isbn", source = "bookIsbn")
+    @Mapping(target = "email", source = "customerEmail")
+    @Mapping(target = "book.id", source = "bookId")
+    @Mapping(target = "book.title", source = "bookTitle")
+    @Mapping(target = "book.author", source = "bookAuthor")
+    @Mapping(target = "book.isbn", source = "bookIsbn")
+    LoanDTO toDTO(LoanDetails details);
+
+    /**
+     * O livro e a data do empréstimo são definidos por quem cria o empréstimo.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "book", ignore = true)
+    @Mapping(target = "loanDate", ignore = true)
+    @Mapping(target = "returned", ignore = true)
+    @Mapping(target = "customerEmail", source = "email")
+    Loan toEntity(LoanDTO dto);
+}
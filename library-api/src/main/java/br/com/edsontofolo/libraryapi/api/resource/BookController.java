@@ -0,0 +1,231 @@
+package br.com.edsontofolo.libraryapi.api.resource;
+
+import br.com.edsontofolo.libraryapi.api.dto.BookDTO;
+import br.com.edsontofolo.libraryapi.api.dto.BookImportResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.CursorPageDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanDTO;
+import br.com.edsontofolo.libraryapi.api.mapper.BookMapper;
+import br.com.edsontofolo.libraryapi.api.mapper.LoanMapper;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import br.com.edsontofolo.libraryapi.service.BookImportService;
+import br.com.edsontofolo.libraryapi.service.BookSearchService;
+import br.com.edsontofolo.libraryapi.service.BookService;
+import br.com.edsontofolo.libraryapi.service.LoanService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/books")
+@RequiredArgsConstructor // precisa colocar o final pra injetar os fields
+@Api("Book API")
+@Slf4j // utilizado para fazer logs
+public class BookController {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    private final LoanService loanService;
+    private final BookService service;
+    private final BookImportService importService;
+    private final BookSearchService searchService;
+    private final ObjectMapper objectMapper;
+    private final BookMapper bookMapper; // gerado pelo MapStruct em tempo de compilação
+    private final LoanMapper loanMapper;
+
+    /**
+     * @Valid é do spring-mvc e valida as anotações @NotEmpty dos fields da classe BookDTO,
+     * evitando assim que a requisição seja efetuada
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @ApiOperation("Create a book")
+    public BookDTO create( @RequestBody @Valid BookDTO dto ) {
+        log.info("Create a book for isbn: {}", dto.getIsbn());
+
+        Book book = bookMapper.toEntity(dto);
+        book = service.save(book);
+        return bookMapper.toDTO(book);
+    }
+
+    /**
+     * Recebe um livro por linha (NDJSON ou CSV com cabeçalho title,author,isbn) e devolve
+     * em NDJSON o resultado de cada linha, escrito à medida que os blocos são gravados.
+     */
+    @PostMapping(value = "bulk", consumes = {NDJSON, CSV}, produces = NDJSON)
+    @ApiOperation("Import books in bulk")
+    public void bulkImport(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BookImportService.Format format = request.getContentType().startsWith(CSV)
+                ? BookImportService.Format.CSV
+                : BookImportService.Format.NDJSON;
+        log.info("Importing books from {}", format);
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        Writer writer = response.getWriter();
+        ObjectWriter lineWriter = objectMapper.writerFor(BookImportResultDTO.class);
+
+        importService.importBooks(request.getReader(), format, result -> {
+            try {
+                writer.write(lineWriter.writeValueAsString(result));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not write import result", e);
+            }
+        });
+        writer.flush();
+    }
+
+    /**
+     * GET condicional: com If-None-Match/If-Modified-Since ainda válidos responde 304 sem corpo.
+     * O livro vem do cache "books" do BookServiceImpl (@Cacheable, Caffeine), então o 304 não custa nem consulta
+     * nem serialização.
+     */
+    @GetMapping("{id}")
+    @ApiOperation("Get a book by id")
+    public BookDTO get(@PathVariable Long id, WebRequest request) {
+        log.info("Geting a book with id: {}", id);
+        Book book = service
+                .getById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (request.checkNotModified(BookETags.of(book), BookETags.lastModified(book))) {
+            return null;
+        }
+        return bookMapper.toDTO(book);
+    }
+
+    @DeleteMapping("{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @ApiOperation("Delete a book by id")
+    @ApiResponses({
+            @ApiResponse(code = 204, message = "Book succesfuly deleted")
+    })
+    public void delete(@PathVariable Long id) {
+        log.info("Deleting book with id: {}", id);
+
+        Book book = service.getById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        service.delete(book);
+    }
+
+    /**
+     * O livro do getById é a instância do cache, compartilhada com os outros GETs: a alteração é feita numa cópia,
+     * e se o update falhar (conflito de versão, por exemplo) o cache continua com o que está no banco
+     */
+    @PutMapping("{id}")
+    @ApiOperation("Update a book by id")
+    public BookDTO update(@PathVariable Long id, @RequestBody @Valid BookDTO dto) {
+        log.info("Updating book with id: {}", id);
+        return service.getById(id)
+                .map((cached -> {
+                    Book book = cached.toBuilder()
+                            .author(dto.getAuthor())
+                            .title(dto.getTitle())
+                            .build();
+                    return bookMapper.toDTO(service.update(book));
+                }))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * As listas só têm ETag: um livro removido não mudaria a maior data de alteração da página
+     */
+    @GetMapping
+    @ApiOperation("Find a book by props")
+    public Page<BookDTO> find(BookDTO dto, Pageable pageRequest, WebRequest request) {
+        Book filter = bookMapper.toEntity(dto);
+        Page<Book> result = service.find(filter, pageRequest);
+        if (request.checkNotModified(BookETags.of(result.getContent(), result.getTotalElements()))) {
+            return null;
+        }
+        List<BookDTO> list = result
+                .getContent()
+                .stream()
+                .map(bookMapper::toDTO)
+                .collect(Collectors.toList());
+        return new PageImpl<>(list, pageRequest, result.getTotalElements());
+    }
+
+    /**
+     * Modo cursor, ativado pelo parâmetro "after" (vazio na primeira página)
+     */
+    @GetMapping(params = "after")
+    @ApiOperation("Find a book by props using a cursor")
+    public CursorPageDTO<BookDTO> findAfter(BookDTO dto,
+                                           @RequestParam String after,
+                                           @RequestParam(defaultValue = "20") int size,
+                                           @RequestParam(required = false) List<String> sort,
+                                           WebRequest request) {
+        CursorPageDTO.requireUnsorted(sort);
+        Book filter = bookMapper.toEntity(dto);
+        List<Book> result = service.findAfter(filter, CursorPageDTO.decode(after), CursorPageDTO.limit(size));
+        if (request.checkNotModified(BookETags.of(result, -1))) {
+            return null;
+        }
+        return CursorPageDTO.of(result, size, Book::getId, bookMapper::toDTO);
+    }
+
+    /**
+     * Busca textual por título, autor e isbn no índice em memória, ordenada por relevância
+     */
+    @GetMapping("search")
+    @ApiOperation("Search books by title, author or isbn")
+    public List<BookDTO> search(@RequestParam("q") String query,
+                                @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > CursorPageDTO.MAX_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be between 1 and " + CursorPageDTO.MAX_SIZE);
+        }
+        return searchService.search(query, size).stream()
+                .map(bookMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @GetMapping("{id}/loans")
+    @ApiOperation("Find a loans book")
+    public Page<LoanDTO> loansByBook(@PathVariable Long id, Pageable pageable) {
+        Book foundBook = service.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        Page<LoanDetails> result = loanService.getLoanDetailsByBook(foundBook, pageable);
+
+        List<LoanDTO> list = result.getContent().stream()
+                .map(loanMapper::toDTO)
+                .collect(Collectors.toList());
+
+        return new PageImpl<LoanDTO>(list, pageable, result.getTotalElements());
+    }
+
+    @GetMapping(value = "{id}/loans", params = "after")
+    @ApiOperation("Find a loans book using a cursor")
+    public CursorPageDTO<LoanDTO> loansByBookAfter(@PathVariable Long id,
+                                                   @RequestParam String after,
+                                                   @RequestParam(defaultValue = "20") int size,
+                                                   @RequestParam(required = false) List<String> sort) {
+        CursorPageDTO.requireUnsorted(sort);
+        Book foundBook = service.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        List<LoanDetails> result = loanService.getLoanDetailsByBookAfter(foundBook, CursorPageDTO.decode(after), CursorPageDTO.limit(size));
+        return CursorPageDTO.of(result, size, LoanDetails::getId, loanMapper::toDTO);
+    }
+
+}
@@ -0,0 +1,40 @@
+package br.com.edsontofolo.libraryapi.api.resource;
+
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * ETags fortes calculados só a partir de id e versão dos livros, antes do mapeamento e da
+ * serialização do corpo. Mudou a versão de algum livro (ou a lista de ids), mudou o ETag.
+ */
+final class BookETags {
+
+    private BookETags() {
+    }
+
+    static String of(Book book) {
+        return "\"" + versionOf(book) + "\"";
+    }
+
+    /**
+     * @param total total de elementos da página, ou -1 no modo cursor
+     */
+    static String of(List<Book> books, long total) {
+        StringBuilder value = new StringBuilder().append(total);
+        for (Book book : books) {
+            value.append(';').append(book.getId()).append(':').append(versionOf(book));
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(value.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static long lastModified(Book book) {
+        return book.getLastModified() == null ? -1 : book.getLastModified().toEpochMilli();
+    }
+
+    private static long versionOf(Book book) {
+        return book.getVersion() == null ? 0 : book.getVersion();
+    }
+}
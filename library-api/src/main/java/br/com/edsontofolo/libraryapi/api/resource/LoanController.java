@@ -0,0 +1,122 @@
+package br.com.edsontofolo.libraryapi.api.resource;
+
+import br.com.edsontofolo.libraryapi.api.dto.CursorPageDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanBatchResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanExportFilterDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanReturnResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.ReturnLoansDTO;
+import br.com.edsontofolo.libraryapi.api.dto.ReturnedLoanDTO;
+import br.com.edsontofolo.libraryapi.api.mapper.LoanMapper;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import br.com.edsontofolo.libraryapi.service.BookService;
+import br.com.edsontofolo.libraryapi.service.LoanBatchService;
+import br.com.edsontofolo.libraryapi.service.LoanExportService;
+import br.com.edsontofolo.libraryapi.service.LoanService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/loans")
+@RequiredArgsConstructor
+public class LoanController {
+    private final LoanService loanService;
+    private final BookService bookService;
+    private final LoanMapper loanMapper;
+    private final LoanExportService exportService;
+    private final LoanBatchService batchService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Long create(@RequestBody LoanDTO dto) {
+        Book book = bookService
+                .getByIsbn(dto.getIsbn())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found for entered isbn"));
+        Loan entity = loanMapper.toEntity(dto);
+        entity.setBook(book);
+        entity.setLoanDate(LocalDate.now());
+        entity = loanService.save(entity);
+        return entity.getId();
+    }
+
+    /**
+     * Vários empréstimos numa requisição, com sucesso parcial: cada item recebe seu resultado
+     */
+    @PostMapping("batch")
+    public List<LoanBatchResultDTO> createBatch(@RequestBody List<LoanDTO> loans) {
+        return batchService.createAll(loans);
+    }
+
+    /**
+     * Devolução em lote por ids de empréstimo e/ou isbns, informando o que não pôde ser devolvido
+     */
+    @PatchMapping("returns")
+    public LoanReturnResultDTO returnBooks(@RequestBody ReturnLoansDTO dto) {
+        return batchService.returnAll(dto);
+    }
+
+    @PatchMapping("{id}")
+    public void returnBook(@PathVariable Long id, @RequestBody ReturnedLoanDTO dto) {
+        Loan loan = loanService.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        loan.setReturned(dto.getReturned());
+
+        loanService.update(loan);
+    }
+
+    @GetMapping
+    public Page<LoanDTO> find(LoanFilterDTO dto, Pageable pageRequest) {
+        Page<LoanDetails> result = loanService.findDetails(dto, pageRequest);
+        List<LoanDTO> loans = result.getContent().stream()
+                .map(loanMapper::toDTO)
+                .collect(Collectors.toList());
+        return new PageImpl<LoanDTO>(loans, pageRequest, result.getTotalElements());
+    }
+
+    /**
+     * Modo cursor, ativado pelo parâmetro "after" (vazio na primeira página)
+     */
+    @GetMapping(params = "after")
+    public CursorPageDTO<LoanDTO> findAfter(LoanFilterDTO dto,
+                                            @RequestParam String after,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            @RequestParam(required = false) List<String> sort) {
+        CursorPageDTO.requireUnsorted(sort);
+        List<LoanDetails> result = loanService.findAfter(dto, CursorPageDTO.decode(after), CursorPageDTO.limit(size));
+        return CursorPageDTO.of(result, size, LoanDetails::getId, loanMapper::toDTO);
+    }
+
+    /**
+     * Todos os empréstimos do filtro, com o livro, escritos direto na resposta:
+     * CSV quando o Accept pede text/csv, senão NDJSON (um empréstimo por linha)
+     */
+    @GetMapping(value = "export", produces = {BookController.NDJSON, BookController.CSV})
+    public void export(LoanExportFilterDTO filter, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        LoanExportService.Format format = accept != null && accept.contains(BookController.CSV)
+                ? LoanExportService.Format.CSV
+                : LoanExportService.Format.NDJSON;
+
+        response.setContentType(format == LoanExportService.Format.CSV ? BookController.CSV : BookController.NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        Writer writer = response.getWriter();
+        exportService.export(filter, format, writer);
+        writer.flush();
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.edsontofolo.libraryapi.api.resource;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanStatisticsDTO;
+import br.com.edsontofolo.libraryapi.service.LoanStatisticsService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Leituras dos contadores em memória, sem consultas ao banco
+ */
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@Api("Statistics API")
+public class StatisticsController {
+
+    private final LoanStatisticsService statisticsService;
+
+    @GetMapping("loans")
+    @ApiOperation("Count all loans")
+    public LoanStatisticsDTO loans() {
+        return statisticsService.global();
+    }
+
+    @GetMapping("books/{id}/loans")
+    @ApiOperation("Count the loans of a book")
+    public LoanStatisticsDTO loansByBook(@PathVariable Long id) {
+        return statisticsService.byBook(id);
+    }
+
+    @GetMapping("customers/{customer}/loans")
+    @ApiOperation("Count the loans of a customer")
+    public LoanStatisticsDTO loansByCustomer(@PathVariable String customer) {
+        return statisticsService.byCustomer(customer);
+    }
+}
@@ -0,0 +1,42 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import br.com.edsontofolo.libraryapi.api.filter.AdaptiveConcurrencyLimiter;
+import br.com.edsontofolo.libraryapi.api.filter.ConcurrencyLimitEndpoint;
+import br.com.edsontofolo.libraryapi.api.filter.ConcurrencyLimitFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Limite adaptativo de concorrência só na API (/api/*); actuator e swagger continuam respondendo na sobrecarga.
+ * Desligado com application.concurrency.enabled=false
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "application.concurrency", name = "enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        return new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                                 ConcurrencyLimitProperties properties) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter, properties));
+        registration.addUrlPatterns("/api/*");
+        // antes dos demais filtros: a recusa não deve custar nada além dela mesma
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public ConcurrencyLimitEndpoint concurrencyLimitEndpoint(AdaptiveConcurrencyLimiter limiter) {
+        return new ConcurrencyLimitEndpoint(limiter);
+    }
+}
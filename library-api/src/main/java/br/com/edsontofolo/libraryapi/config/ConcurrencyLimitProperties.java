@@ -0,0 +1,46 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Limite adaptativo de requisições simultâneas em /api/* (prefixo application.concurrency)
+ */
+@Data
+@ConfigurationProperties(prefix = "application.concurrency")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+    /**
+     * Limite inicial e faixa em que o limite pode variar
+     */
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    /**
+     * Amostras de latência por janela; o limite é recalculado ao fim de cada janela
+     */
+    private int windowSize = 50;
+    /**
+     * Peso do novo limite calculado sobre o anterior (0 a 1)
+     */
+    private double smoothing = 0.2;
+    /**
+     * Fração do limite que cada prioridade pode ocupar; a alta usa o limite inteiro
+     */
+    private double normalShare = 0.9;
+    private double lowShare = 0.6;
+    /**
+     * Requisições no formato "MÉTODO /padrão/ant"; as que não casam com nenhuma lista são normais
+     */
+    private List<String> high = new ArrayList<>();
+    private List<String> low = new ArrayList<>();
+    /**
+     * Requisições longas (streams): ocupam vaga, mas a latência delas não entra no cálculo do limite
+     */
+    private List<String> unsampled = new ArrayList<>();
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,38 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configurações da fila de envio de emails (prefixo application.mail.dispatch)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "application.mail.dispatch")
+public class EmailDispatchProperties {
+    /**
+     * Mensagens aguardando envio; quando cheia, quem enfileira espera até enqueueTimeout
+     */
+    private int queueCapacity = 1000;
+    private Duration enqueueTimeout = Duration.ofSeconds(5);
+    /**
+     * Threads enviando para o SMTP ao mesmo tempo
+     */
+    private int concurrency = 2;
+    /**
+     * Token bucket: envios por segundo e rajada máxima permitidos pelo provedor
+     */
+    private double ratePerSecond = 10;
+    private int burst = 10;
+    private int maxAttempts = 3;
+    private Duration initialBackoff = Duration.ofSeconds(1);
+    private double backoffMultiplier = 2;
+    /**
+     * Quantas falhas definitivas ficam guardadas; as mais antigas são descartadas
+     */
+    private int deadLetterCapacity = 1000;
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
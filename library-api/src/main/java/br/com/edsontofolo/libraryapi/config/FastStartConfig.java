@@ -0,0 +1,53 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Profile fast-start (application-fast-start.properties): com spring.main.lazy-initialization os beans só são
+ * criados no primeiro uso, exceto os tipos listados em application.fast-start.eager, que precisam existir desde
+ * a subida (jobs @Scheduled, listeners do Hibernate, contadores reconstruídos no @PostConstruct).
+ */
+@Configuration
+public class FastStartConfig {
+
+    /**
+     * Estático: o filtro é consultado pelo BeanFactoryPostProcessor do lazy init, antes dos demais beans
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeansFilter(Environment environment) {
+        List<String> eager = Binder.get(environment)
+                .bind("application.fast-start.eager", Bindable.listOf(String.class))
+                .orElse(Collections.emptyList());
+        return LazyInitializationExcludeFilter.forBeanTypes(eager.stream()
+                .map(name -> ClassUtils.resolveClassName(name.trim(), FastStartConfig.class.getClassLoader()))
+                .toArray(Class[]::new));
+    }
+
+    /**
+     * Execução de treino do arquivo de class-data sharing (profile fast-start do Maven): sobe, carrega as classes
+     * da inicialização e encerra, e a JVM grava o arquivo na saída
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.fast-start", name = "exit-after-startup")
+    public ApplicationListener<ApplicationReadyEvent> exitAfterStartup() {
+        return new ApplicationListener<ApplicationReadyEvent>() {
+            @Override
+            public void onApplicationEvent(ApplicationReadyEvent event) {
+                System.exit(SpringApplication.exit(event.getApplicationContext()));
+            }
+        };
+    }
+}
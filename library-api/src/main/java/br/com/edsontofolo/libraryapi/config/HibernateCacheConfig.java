@@ -0,0 +1,51 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import com.github.benmanes.caffeine.jcache.CacheManagerImpl;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.Properties;
+
+/**
+ * Entrega ao Hibernate um CacheManager JCache do Caffeine com as regiões já criadas,
+ * dimensionadas por application.hibernate.cache.regions.*
+ *
+ * Estatísticas de acerto por região, com hibernate.generate_statistics ligado:
+ * /actuator/metrics/hibernate.second.level.cache.requests
+ */
+@Configuration
+@EnableConfigurationProperties(HibernateCacheProperties.class)
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(HibernateCacheProperties properties) {
+        // um CacheManager por contexto: o do Caching.getCachingProvider() seria compartilhado pela JVM
+        CacheManager cacheManager = new CacheManagerImpl(new CaffeineCachingProvider(),
+                URI.create("library-api:hibernate"), getClass().getClassLoader(), new Properties());
+
+        properties.getRegions().forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            // as entradas do Hibernate são imutáveis, não precisam ser copiadas a cada get/put
+            configuration.setStoreByValue(false);
+            configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+            if (region.getExpireAfterWrite() != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+            }
+            cacheManager.createCache(name, configuration);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCache(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
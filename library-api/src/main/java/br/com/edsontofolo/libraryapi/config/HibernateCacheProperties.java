@@ -0,0 +1,29 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Regiões do cache de segundo nível do Hibernate (prefixo application.hibernate.cache)
+ */
+@Data
+@ConfigurationProperties(prefix = "application.hibernate.cache")
+public class HibernateCacheProperties {
+    /**
+     * Nome da região (o mesmo do @Cache da entidade) -> tamanho e expiração
+     */
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+        private long maximumSize = 10_000;
+        /**
+         * Vazio para não expirar; o Hibernate já atualiza a região quando a entidade muda
+         */
+        private Duration expireAfterWrite;
+    }
+}
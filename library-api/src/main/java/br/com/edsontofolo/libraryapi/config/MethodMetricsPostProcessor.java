@@ -0,0 +1,56 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Coloca um MethodMetricsInterceptor nos beans que implementam as interfaces medidas.
+ *
+ * Os repositórios do Spring Data já são proxies (o alvo é um SimpleJpaRepository, que não
+ * implementa BookRepository), então o interceptor é adicionado no início da cadeia deles;
+ * os demais beans ganham um proxy novo.
+ */
+public class MethodMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> registry;
+    /**
+     * Interface medida -> nome do Timer
+     */
+    private final Map<Class<?>, String> timedTypes = new LinkedHashMap<>();
+
+    public MethodMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    public MethodMetricsPostProcessor time(Class<?> type, String timerName) {
+        timedTypes.put(type, timerName);
+        return this;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        for (Map.Entry<Class<?>, String> timed : timedTypes.entrySet()) {
+            if (timed.getKey().isInstance(bean)) {
+                return addInterceptor(bean, new MethodMetricsInterceptor(registry, timed.getValue(), timed.getKey()));
+            }
+        }
+        return bean;
+    }
+
+    private Object addInterceptor(Object bean, MethodMetricsInterceptor interceptor) {
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+}
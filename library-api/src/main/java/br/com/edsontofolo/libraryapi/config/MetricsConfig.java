@@ -0,0 +1,40 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.BookService;
+import br.com.edsontofolo.libraryapi.service.EmailService;
+import br.com.edsontofolo.libraryapi.service.LoanArchiveService;
+import br.com.edsontofolo.libraryapi.service.LoanBatchService;
+import br.com.edsontofolo.libraryapi.service.LoanService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Timers library.service e library.repository, vistos em /actuator/metrics e /actuator/prometheus.
+ * Os histogramas de percentis são ligados em application.properties
+ * (management.metrics.distribution.percentiles-histogram.library).
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "library.service";
+    public static final String REPOSITORY_TIMER = "library.repository";
+
+    /**
+     * static: BeanPostProcessor precisa existir antes dos beans que ele vai processar
+     */
+    @Bean
+    public static MethodMetricsPostProcessor methodMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new MethodMetricsPostProcessor(registry)
+                .time(BookService.class, SERVICE_TIMER)
+                .time(LoanService.class, SERVICE_TIMER)
+                .time(LoanBatchService.class, SERVICE_TIMER)
+                .time(LoanArchiveService.class, SERVICE_TIMER)
+                .time(EmailService.class, SERVICE_TIMER)
+                .time(BookRepository.class, REPOSITORY_TIMER)
+                .time(LoanRepository.class, REPOSITORY_TIMER);
+    }
+}
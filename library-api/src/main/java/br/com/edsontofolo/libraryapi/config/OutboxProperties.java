@@ -0,0 +1,28 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Relay do outbox de eventos (prefixo application.outbox)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "application.outbox")
+public class OutboxProperties {
+    /**
+     * Eventos lidos e entregues por transação, e intervalo entre as leituras quando a tabela esvazia
+     */
+    private int batchSize = 100;
+    private Duration pollInterval = Duration.ofMillis(500);
+    /**
+     * Entregas com falha voltam depois do backoff exponencial; esgotadas as tentativas, ficam paradas na tabela
+     */
+    private int maxAttempts = 10;
+    private Duration initialBackoff = Duration.ofSeconds(1);
+    private double backoffMultiplier = 2;
+    private Duration maxBackoff = Duration.ofMinutes(10);
+}
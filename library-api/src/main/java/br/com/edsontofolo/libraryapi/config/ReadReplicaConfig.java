@@ -0,0 +1,130 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Com application.datasource.replicas configurado, o DataSource da aplicação passa a ser o
+ * ReplicaRoutingDataSource: primário em spring.datasource.* e uma pool do Hikari por réplica.
+ *
+ * Cada pool (a do primário se chama "primary") publica as métricas hikaricp.* com a tag pool (conexões em uso, espera e tempo de uso)
+ * e as réplicas aparecem em /actuator/health como "replicas".
+ */
+@Configuration
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@ConditionalOnProperty(name = "application.datasource.replicas[0].url")
+public class ReadReplicaConfig {
+
+    /**
+     * Configuração do pool do primário com spring.datasource.hikari.* aplicado, como o Spring Boot faria.
+     * O pool em si não vira bean DataSource: o DataSourceInitializerInvoker do Boot fecharia um ciclo com o Flyway.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariConfig primaryPoolConfig(DataSourceProperties properties) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        config.setDriverClassName(properties.determineDriverClassName());
+        config.setJdbcUrl(properties.determineUrl());
+        config.setUsername(properties.determineUsername());
+        config.setPassword(properties.determinePassword());
+        return config;
+    }
+
+    @Bean
+    public DataSourcePools dataSourcePools(HikariConfig primaryPoolConfig, ReadReplicaProperties properties,
+                                           ObjectProvider<MeterRegistry> registry) {
+        HikariDataSource primary = new HikariDataSource(primaryPoolConfig);
+        registry.ifAvailable(meterRegistry -> primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry)));
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReadReplicaProperties.Replica replica = properties.getReplicas().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(replica.getName() != null ? replica.getName() : "replica-" + i);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            registry.ifAvailable(meterRegistry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry)));
+            replicas.put(dataSource.getPoolName(), dataSource);
+        }
+        return new DataSourcePools(primary, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourcePools pools, ReadReplicaProperties properties) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(pools.getPrimary(), pools.getReplicas(),
+                properties.getReadYourWrites(), properties.getReplicaRetryAfter()));
+    }
+
+    /**
+     * Só os métodos @ReplicaRead leem das réplicas
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor replicaReadAdvisor() {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, ReplicaRead.class, true),
+                new ReplicaRoutingDataSource.ReplicaReadInterceptor());
+    }
+
+    @Bean
+    public HealthContributor replicasHealthContributor(DataSourcePools pools) {
+        Map<String, HealthContributor> indicators = new LinkedHashMap<>();
+        pools.getReplicas().forEach((name, pool) -> indicators.put(name, new DataSourceHealthIndicator(pool)));
+        return CompositeHealthContributor.fromMap(indicators);
+    }
+
+    /**
+     * As pools não são beans DataSource (seriam candidatas a injeção no lugar do roteamento); são fechadas aqui
+     */
+    public static class DataSourcePools implements Closeable {
+        private final HikariDataSource primary;
+        private final Map<String, HikariDataSource> replicas;
+
+        DataSourcePools(HikariDataSource primary, Map<String, HikariDataSource> replicas) {
+            this.primary = primary;
+            this.replicas = replicas;
+        }
+
+        public HikariDataSource getPrimary() {
+            return primary;
+        }
+
+        public Map<String, HikariDataSource> getReplicas() {
+            return replicas;
+        }
+
+        @Override
+        public void close() {
+            replicas.values().forEach(HikariDataSource::close);
+            primary.close();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura do banco (prefixo application.datasource); sem réplicas tudo vai para o spring.datasource
+ */
+@Data
+@ConfigurationProperties(prefix = "application.datasource")
+public class ReadReplicaProperties {
+    private List<Replica> replicas = new ArrayList<>();
+    /**
+     * Depois de uma escrita, as leituras do mesmo cliente (cookie read-your-writes) continuam no primário
+     * por esse tempo, para não ler da réplica um dado que ainda não chegou nela. Zero desliga.
+     */
+    private Duration readYourWrites = Duration.ofSeconds(2);
+    /**
+     * Réplica que falhou ao entregar conexão fica fora da rotação por esse tempo
+     */
+    private Duration replicaRetryAfter = Duration.ofSeconds(30);
+
+    @Data
+    public static class Replica {
+        /**
+         * Nome do pool do Hikari, usado na tag pool das métricas hikaricp.* e no health
+         */
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
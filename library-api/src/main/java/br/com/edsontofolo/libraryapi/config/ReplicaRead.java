@@ -0,0 +1,18 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Consulta de serviço que pode ler de uma réplica, com a defasagem dela: listagens, buscas e exportações.
+ * Só vale junto com @Transactional(readOnly = true); o resto, inclusive as transações readOnly que o Spring Data
+ * abre nos repositórios e as verificações dos fluxos de escrita, lê do primário.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
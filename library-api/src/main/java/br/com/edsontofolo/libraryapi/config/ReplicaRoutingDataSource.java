@@ -0,0 +1,215 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transações readOnly dentro de um método @ReplicaRead vão para as réplicas em rodízio; o resto vai para o primário.
+ * As transações readOnly que o Spring Data abre nos repositórios ficam no primário: são as leituras dos fluxos de
+ * escrita (isbn duplicado, empréstimo a devolver, checkpoint dos jobs), que não podem ver dados defasados.
+ *
+ * O read-your-writes vale por cliente: a resposta de uma escrita leva o cookie read-your-writes com o fim
+ * do prazo, e as requisições seguintes que o devolvem leem do primário até lá, em qualquer thread ou instância.
+ * Fora de uma requisição HTTP (jobs, listeners) não há prazo.
+ *
+ * Precisa ficar atrás de um LazyConnectionDataSourceProxy: o JpaTransactionManager pede a conexão
+ * antes de marcar a transação como readOnly, e o proxy adia o pedido até o primeiro comando.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String READ_YOUR_WRITES_COOKIE = "read-your-writes";
+
+    private static final String PRIMARY_UNTIL = ReplicaRoutingDataSource.class.getName() + ".primaryUntil";
+    private static final String COOKIE_SENT = ReplicaRoutingDataSource.class.getName() + ".cookieSent";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicaTargets;
+    private final List<String> replicas;
+    private final long readYourWritesMillis;
+    private final long retryAfterNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Long> downUntil = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, ? extends DataSource> replicas,
+                                    Duration readYourWrites, Duration retryAfter) {
+        this.primary = primary;
+        this.replicaTargets = new HashMap<>(replicas);
+        this.replicas = new ArrayList<>(replicas.keySet());
+        this.readYourWritesMillis = readYourWrites.toMillis();
+        this.retryAfterNanos = retryAfter.toNanos();
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                wrote();
+            }
+            return PRIMARY;
+        }
+        if (!Boolean.TRUE.equals(REPLICA_READ.get())) {
+            return PRIMARY;
+        }
+        if (System.currentTimeMillis() < primaryUntil()) {
+            return PRIMARY;
+        }
+        return nextReplica();
+    }
+
+    /**
+     * Réplica fora do ar não derruba a leitura: ela sai da rotação e a conexão vem do primário
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        String key = (String) determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+        try {
+            return replicaTargets.get(key).getConnection();
+        } catch (SQLException e) {
+            log.warn("Replica {} unavailable, reading from the primary for {} ms", key, retryAfterNanos / 1_000_000, e);
+            downUntil.put(key, System.nanoTime() + retryAfterNanos);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Interceptor dos métodos @ReplicaRead: marca a thread enquanto o método executa
+     */
+    public static class ReplicaReadInterceptor implements MethodInterceptor {
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Boolean previous = REPLICA_READ.get();
+            REPLICA_READ.set(Boolean.TRUE);
+            try {
+                return invocation.proceed();
+            } finally {
+                if (previous == null) {
+                    REPLICA_READ.remove();
+                } else {
+                    REPLICA_READ.set(previous);
+                }
+            }
+        }
+    }
+
+    private String nextReplica() {
+        long now = System.nanoTime();
+        for (int i = 0; i < replicas.size(); i++) {
+            String replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            Long until = downUntil.get(replica);
+            if (until == null || now - until >= 0) {
+                downUntil.remove(replica);
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Fim do prazo do cliente: o de uma escrita desta requisição ou o do cookie de uma escrita anterior
+     */
+    private long primaryUntil() {
+        ServletRequestAttributes attributes = requestAttributes();
+        if (attributes == null) {
+            return 0;
+        }
+        Object until = attributes.getAttribute(PRIMARY_UNTIL, RequestAttributes.SCOPE_REQUEST);
+        if (until != null) {
+            return (Long) until;
+        }
+        Cookie[] cookies = attributes.getRequest().getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (READ_YOUR_WRITES_COOKIE.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * O prazo do read-your-writes conta a partir do fim da transação de escrita, quando o dado fica visível
+     */
+    private void wrote() {
+        ServletRequestAttributes attributes = requestAttributes();
+        if (readYourWritesMillis <= 0 || attributes == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            readFromPrimary(attributes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                readFromPrimary(attributes);
+            }
+        });
+    }
+
+    /**
+     * O cookie vai uma vez por resposta; escritas seguintes da mesma requisição só estendem o prazo dela
+     */
+    private void readFromPrimary(ServletRequestAttributes attributes) {
+        long until = System.currentTimeMillis() + readYourWritesMillis;
+        attributes.setAttribute(PRIMARY_UNTIL, until, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || response.isCommitted()
+                || attributes.getAttribute(COOKIE_SENT, RequestAttributes.SCOPE_REQUEST) != null) {
+            return;
+        }
+        Cookie cookie = new Cookie(READ_YOUR_WRITES_COOKIE, Long.toString(until));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) TimeUnit.MILLISECONDS.toSeconds(readYourWritesMillis + 999));
+        response.addCookie(cookie);
+        attributes.setAttribute(COOKIE_SENT, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private static ServletRequestAttributes requestAttributes() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes ? (ServletRequestAttributes) attributes : null;
+    }
+}
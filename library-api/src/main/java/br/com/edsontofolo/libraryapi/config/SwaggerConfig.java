@@ -1,5 +1,6 @@
 package br.com.edsontofolo.libraryapi.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.ApiInfoBuilder;
@@ -14,9 +15,12 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
 /**
  * Para acessar a interface gráfica acesse:
  * http://localhost:8080/swagger-ui.html
+ *
+ * Desligado com application.swagger.enabled=false: a varredura dos handlers atrasa a subida (profile fast-start)
  */
 @EnableSwagger2
 @Configuration
+@ConditionalOnProperty(prefix = "application.swagger", name = "enabled", matchIfMissing = true)
 public class SwaggerConfig {
     @Bean
     public Docket docket() {
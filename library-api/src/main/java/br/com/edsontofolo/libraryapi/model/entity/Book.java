@@ -0,0 +1,57 @@
+package br.com.edsontofolo.libraryapi.model.entity;
+
+import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.*;
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Entity
+@Table
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
+public class Book {
+    /**
+     * Região do cache de segundo nível, configurada em application.hibernate.cache.regions.book
+     */
+    public static final String CACHE_REGION = "book";
+
+    /**
+     * Sequence com allocationSize > 1 usa o otimizador pooled do Hibernate,
+     * o que permite agrupar os inserts em batch (IDENTITY obriga um insert por vez).
+     */
+    @Id
+    @Column
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_sequence")
+    @SequenceGenerator(name = "book_sequence", sequenceName = "book_seq", allocationSize = 50)
+    private Long id;
+    @Column
+    private String title;
+    @Column
+    private String author;
+    @Column
+    private String isbn;
+    /**
+     * Incrementada pelo Hibernate a cada update, serve de ETag para o GET condicional
+     */
+    @Version
+    @Column
+    private Long version;
+    @Column
+    private Instant lastModified;
+    @OneToMany(mappedBy = "book", fetch = FetchType.LAZY)
+    private List<Loan> loans;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = Instant.now();
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.edsontofolo.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDate;
+
+/**
+ * Último bloco processado por um job agendado, para que uma execução interrompida
+ * continue de onde parou em vez de começar do zero.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class JobCheckpoint {
+    @Id
+    @Column(length = 60)
+    private String jobName;
+    @Column
+    private LocalDate runDate;
+    @Column
+    private Long lastId;
+    @Column
+    private Boolean completed;
+}
@@ -14,8 +14,12 @@ import java.time.LocalDate;
 @Builder
 @Entity
 public class Loan {
+    /**
+     * Sequence pooled como em Book, para os empréstimos em lote (/api/loans/batch) irem num batch JDBC
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_sequence")
+    @SequenceGenerator(name = "loan_sequence", sequenceName = "loan_seq", allocationSize = 50)
     private Long id;
     @Column(length = 60)
     private String customer;
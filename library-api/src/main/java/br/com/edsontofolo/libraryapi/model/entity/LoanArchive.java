@@ -0,0 +1,38 @@
+package br.com.edsontofolo.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Empréstimo devolvido e antigo, movido da tabela loan pelo LoanArchiveService com o mesmo id.
+ * Só é lido nas consultas por período que alcançam a data de corte do arquivo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "loan_archive")
+public class LoanArchive {
+    @Id
+    private Long id;
+    @Column(length = 60)
+    private String customer;
+    @JoinColumn(name = "id_book")
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Book book;
+    @Column
+    private LocalDate loanDate;
+    @Column
+    private Boolean returned;
+    @Column(name = "customer_email")
+    private String customerEmail;
+    @Column
+    private Instant archivedAt;
+}
@@ -0,0 +1,48 @@
+package br.com.edsontofolo.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Evento de domínio ainda não entregue aos consumidores; o payload é o estado do empréstimo ou do livro em JSON
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+    public enum Type {
+        LOAN_CREATED, LOAN_UPDATED, LOAN_RETURNED, BOOK_CREATED, BOOK_UPDATED, BOOK_DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_sequence")
+    @SequenceGenerator(name = "outbox_event_sequence", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+    @Column(length = 30)
+    @Enumerated(EnumType.STRING)
+    private Type eventType;
+    @Column
+    private Long aggregateId;
+    @Column(length = 4000)
+    private String payload;
+    @Column
+    private Instant createdAt;
+    /**
+     * Próxima tentativa de entrega; nulo depois de esgotadas as tentativas
+     */
+    @Column
+    private Instant availableAt;
+    @Column
+    private int attempts;
+    @Column(length = 500)
+    private String lastError;
+}
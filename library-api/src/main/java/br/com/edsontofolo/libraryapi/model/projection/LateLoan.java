@@ -0,0 +1,16 @@
+package br.com.edsontofolo.libraryapi.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Somente o necessário para avisar o cliente de um empréstimo atrasado
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class LateLoan {
+    private Long id;
+    private String customerEmail;
+}
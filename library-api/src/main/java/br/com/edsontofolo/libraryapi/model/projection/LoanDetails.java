@@ -0,0 +1,30 @@
+package br.com.edsontofolo.libraryapi.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Projeção de um empréstimo com os dados do livro, carregada num único select com join, sem instanciar
+ * as entidades Loan e Book: por construtor na consulta JPQL (select new ...) ou, em findDetailsByFilter,
+ * a partir das colunas do SQL nativo.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class LoanDetails {
+    public static final String SELECT = "select new br.com.edsontofolo.libraryapi.model.projection.LoanDetails(" +
+            "l.id, l.customer, l.customerEmail, l.loanDate, l.returned, b.id, b.title, b.author, b.isbn) ";
+
+    private Long id;
+    private String customer;
+    private String customerEmail;
+    private LocalDate loanDate;
+    private Boolean returned;
+    private Long bookId;
+    private String bookTitle;
+    private String bookAuthor;
+    private String bookIsbn;
+}
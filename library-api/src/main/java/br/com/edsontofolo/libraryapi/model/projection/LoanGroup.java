@@ -0,0 +1,19 @@
+package br.com.edsontofolo.libraryapi.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Quantidade de empréstimos com o mesmo livro, cliente, data e situação, usada para remontar as estatísticas
+ */
+@Value
+@AllArgsConstructor
+public class LoanGroup {
+    private Long bookId;
+    private String customer;
+    private LocalDate loanDate;
+    private Boolean returned;
+    private Long count;
+}
@@ -0,0 +1,30 @@
+package br.com.edsontofolo.libraryapi.model.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * O mínimo para decidir uma devolução em lote e atualizar as estatísticas: o livro, o cliente,
+ * a data do empréstimo e se ele já foi devolvido
+ */
+@Value
+@Builder(toBuilder = true)
+@AllArgsConstructor
+public class LoanState {
+    public static final String SELECT = "select new br.com.edsontofolo.libraryapi.model.projection.LoanState(" +
+            "l.id, b.id, b.isbn, l.customer, l.loanDate, l.returned) ";
+
+    private Long id;
+    private Long bookId;
+    private String isbn;
+    private String customer;
+    private LocalDate loanDate;
+    private Boolean returned;
+
+    public boolean isOpen() {
+        return !Boolean.TRUE.equals(returned);
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.edsontofolo.libraryapi.model.repository;
+
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookRepository extends JpaRepository<Book, Long> {
+    boolean existsByIsbn(String isbn);
+
+    Optional<Book> findByIsbn(String isbn);
+
+    List<Book> findByIsbnIn(Collection<String> isbns);
+
+    @Query(value = "select b.isbn from Book b where b.isbn in :isbns")
+    List<String> findIsbnsIn(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * Paginação por keyset: continua a partir do último id lido, sem offset e sem count.
+     * Os filtros nulos são ignorados, como no Example usado pelo BookServiceImpl.find.
+     */
+    @Query(value = "select b from Book b " +
+            "where (:after is null or b.id > :after) " +
+            "and (:title is null or lower(b.title) like lower(concat('%', :title, '%'))) " +
+            "and (:author is null or lower(b.author) like lower(concat('%', :author, '%'))) " +
+            "and (:isbn is null or lower(b.isbn) like lower(concat('%', :isbn, '%'))) " +
+            "order by b.id")
+    List<Book> findAfter(@Param("after") Long after,
+                         @Param("title") String title,
+                         @Param("author") String author,
+                         @Param("isbn") String isbn,
+                         Pageable limit);
+
+}
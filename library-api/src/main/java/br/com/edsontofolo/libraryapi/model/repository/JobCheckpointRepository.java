@@ -0,0 +1,7 @@
+package br.com.edsontofolo.libraryapi.model.repository;
+
+import br.com.edsontofolo.libraryapi.model.entity.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -0,0 +1,95 @@
+package br.com.edsontofolo.libraryapi.model.repository;
+
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.projection.LateLoan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanGroup;
+import br.com.edsontofolo.libraryapi.model.projection.LoanState;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface LoanRepository extends JpaRepository<Loan, Long>, LoanRepositoryCustom {
+
+    @Query(value = "select case when (count(l.id) > 0) then true else false end " +
+            "from Loan l " +
+            "where (l.book = :book) and (l.returned is null or l.returned is false)")
+    boolean existsByBookAndNotReturned(@Param("book") Book book);
+
+    @Query(value = "select distinct l.book.id from Loan l where l.returned is null or l.returned is false")
+    List<Long> findLoanedBookIds();
+
+    @EntityGraph(attributePaths = "book")
+    Page<Loan> findByBook(Book book, Pageable pageable);
+
+    @Query(value = "select l from Loan l join fetch l.book where l.loanDate <= :date and (l.returned is null or l.returned is false)")
+    List<Loan> findByLoansDateLessThanAndNotResturned(@Param("date") LocalDate date);
+
+    /**
+     * Um bloco de empréstimos atrasados a partir do último id processado, sem carregar as entidades
+     */
+    @Query(value = "select new br.com.edsontofolo.libraryapi.model.projection.LateLoan(l.id, l.customerEmail) " +
+            "from Loan l " +
+            "where l.loanDate <= :date and (l.returned is null or l.returned is false) " +
+            "and (:after is null or l.id > :after) " +
+            "order by l.id")
+    List<LateLoan> findLateLoansAfter(@Param("date") LocalDate date, @Param("after") Long after, Pageable limit);
+
+    @Query(value = LoanState.SELECT + "from Loan l join l.book b where l.id in :ids")
+    List<LoanState> findStatesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = LoanState.SELECT + "from Loan l join l.book b " +
+            "where b.isbn in :isbns and (l.returned is null or l.returned is false)")
+    List<LoanState> findOpenStatesByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    /**
+     * Devolução em lote num único update; empréstimos já devolvidos não são alterados
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update Loan l set l.returned = true where l.id in :ids and (l.returned is null or l.returned = false)")
+    int markReturned(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "select distinct l.book.id from Loan l " +
+            "where l.book.id in :bookIds and (l.returned is null or l.returned is false)")
+    List<Long> findLoanedBookIdsIn(@Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * Empréstimos agrupados para remontar as estatísticas; precisa de uma transação aberta
+     * e o Stream deve ser fechado por quem chama
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "select new br.com.edsontofolo.libraryapi.model.projection.LoanGroup(" +
+            "l.book.id, l.customer, l.loanDate, l.returned, count(l)) " +
+            "from Loan l group by l.book.id, l.customer, l.loanDate, l.returned")
+    Stream<LoanGroup> streamGroups();
+
+    /**
+     * Como streamGroups, para os empréstimos já arquivados
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(value = "select new br.com.edsontofolo.libraryapi.model.projection.LoanGroup(" +
+            "a.book.id, a.customer, a.loanDate, a.returned, count(a)) " +
+            "from LoanArchive a group by a.book.id, a.customer, a.loanDate, a.returned")
+    Stream<LoanGroup> streamArchivedGroups();
+
+    /**
+     * Próximo bloco de empréstimos devolvidos com data anterior a date, a serem arquivados
+     */
+    @Query(value = "select l.id from Loan l where l.loanDate < :date and l.returned = true order by l.id")
+    List<Long> findArchivableIds(@Param("date") LocalDate date, Pageable limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from Loan l where l.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,55 @@
+package br.com.edsontofolo.libraryapi.model.repository;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Buscas com filtros dinâmicos, implementadas em LoanRepositoryImpl. As paginadas seguem o sort do Pageable
+ * (id desempata); as demais vêm ordenadas pelo id.
+ *
+ * As buscas de LoanDetails também leem loan_archive quando o período pedido alcança o arquivo
+ * (sem data inicial ou com ela antes de archiveCutoff()); as que devolvem a entidade Loan leem só a tabela loan.
+ */
+public interface LoanRepositoryCustom {
+
+    /**
+     * Os empréstimos vêm com o livro no mesmo select (join fetch)
+     */
+    Page<Loan> findByFilter(LoanFilterDTO filter, Pageable page);
+
+    /**
+     * Sem returned=false, porque o arquivo só tem empréstimos devolvidos
+     */
+    Page<LoanDetails> findDetailsByFilter(LoanFilterDTO filter, Pageable page);
+
+    /**
+     * Paginação por keyset: continua a partir do último id lido (null na primeira página), sem offset e sem count;
+     * lê loan_archive como findDetailsByFilter
+     */
+    List<LoanDetails> findDetailsByFilterAfter(LoanFilterDTO filter, Long after, int limit);
+
+    /**
+     * Todos os empréstimos do filtro, os arquivados e depois os da tabela loan, cada parte em ordem de id,
+     * lidos sob demanda; precisa de uma transação aberta e o Stream deve ser fechado por quem chama
+     */
+    Stream<LoanDetails> streamDetails(LocalDate from, LocalDate to, String isbn);
+
+    /**
+     * Empréstimos com data a partir deste dia nunca estão arquivados
+     */
+    LocalDate archiveCutoff();
+
+    /**
+     * Copia os empréstimos para loan_archive num insert ... select, sem carregar as entidades
+     */
+    int copyToArchive(Collection<Long> ids, Instant archivedAt);
+}
@@ -0,0 +1,319 @@
+package br.com.edsontofolo.libraryapi.model.repository;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
+import br.com.edsontofolo.libraryapi.exception.BusinessException;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.BooleanType;
+import org.hibernate.type.LocalDateType;
+import org.hibernate.type.LongType;
+import org.hibernate.type.StringType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A busca parte de um SQL nativo montado só com os filtros informados. Nas buscas de LoanDetails esse SQL
+ * já traz os dados do livro, e a página sai num único select; as buscas que devolvem a entidade Loan
+ * acham primeiro os ids da página e depois carregam os empréstimos com o livro por um select pelo id.
+ *
+ * Isbn e cliente juntos viram um UNION de dois selects, um por índice (isbn do livro e cliente),
+ * em vez de um OR entre colunas de tabelas diferentes, que obriga o banco a ler a tabela loan inteira.
+ * Os índices são os da V2, cujos comentários citam as consultas da época: ix_loan_book_returned
+ * (findDetailsByBook) atende o filtro por livro e ix_loan_customer (findDetailsByBookIsbnOrCustomer) o por cliente.
+ * Quando o período alcança o arquivo, cada select se repete sobre loan_archive.
+ *
+ * O sort do Pageable vale para id, customer, loanDate e returned, sempre com o id desempatando;
+ * outras propriedades são recusadas com BusinessException (400).
+ */
+@RequiredArgsConstructor
+public class LoanRepositoryImpl implements LoanRepositoryCustom {
+
+    private static final String FETCH_SIZE = "500";
+
+    private static final String DETAILS_COLUMNS = "l.id, l.customer, l.customer_email, l.loan_date, l.returned, "
+            + "b.id as book_id, b.title, b.author, b.isbn";
+
+    private static final Map<String, String> SORT_COLUMNS = new HashMap<>();
+
+    static {
+        SORT_COLUMNS.put("id", "id");
+        SORT_COLUMNS.put("customer", "customer");
+        SORT_COLUMNS.put("loanDate", "loan_date");
+        SORT_COLUMNS.put("returned", "returned");
+    }
+
+    private final EntityManager entityManager;
+
+    @Value("${application.loans.archive.after-days:365}")
+    private int archiveAfterDays;
+
+    @Override
+    public Page<Loan> findByFilter(LoanFilterDTO filter, Pageable page) {
+        LoanQuery query = new LoanQuery(filter, null, false, page.getSort());
+        List<Long> ids = query.ids(page.getOffset(), page.getPageSize());
+        List<Loan> content = inOrder(ids, load("select l from Loan l join fetch l.book where l.id in :ids",
+                Loan.class, ids), Loan::getId);
+        return PageableExecutionUtils.getPage(content, page, query::count);
+    }
+
+    @Override
+    public Page<LoanDetails> findDetailsByFilter(LoanFilterDTO filter, Pageable page) {
+        LoanQuery query = new LoanQuery(filter, null, reachesArchive(filter), page.getSort());
+        return PageableExecutionUtils.getPage(query.details(page.getOffset(), page.getPageSize()), page, query::count);
+    }
+
+    @Override
+    public List<LoanDetails> findDetailsByFilterAfter(LoanFilterDTO filter, Long after, int limit) {
+        return new LoanQuery(filter, after, reachesArchive(filter), Sort.unsorted()).details(0, limit);
+    }
+
+    @Override
+    public Stream<LoanDetails> streamDetails(LocalDate from, LocalDate to, String isbn) {
+        Stream<LoanDetails> loans = streamDetails("Loan", from, to, isbn);
+        if (!reachesArchive(from)) {
+            return loans;
+        }
+        return Stream.concat(streamDetails("LoanArchive", from, to, isbn), loans);
+    }
+
+    @Override
+    public LocalDate archiveCutoff() {
+        return LocalDate.now().minusDays(archiveAfterDays);
+    }
+
+    /**
+     * Sem query space o Hibernate não sabe qual tabela um SQL nativo altera e limpa todas as regiões
+     * do cache de segundo nível; declarando loan_archive, o cache dos livros fica intacto
+     */
+    @Override
+    public int copyToArchive(Collection<Long> ids, Instant archivedAt) {
+        return entityManager.createNativeQuery("insert into loan_archive " +
+                "(id, customer, id_book, loan_date, returned, customer_email, archived_at) " +
+                "select id, customer, id_book, loan_date, returned, customer_email, :archivedAt from loan where id in :ids")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("loan_archive")
+                .setParameter("ids", ids)
+                .setParameter("archivedAt", archivedAt)
+                .executeUpdate();
+    }
+
+    private boolean reachesArchive(LocalDate from) {
+        return from == null || from.isBefore(archiveCutoff());
+    }
+
+    /**
+     * Sem returned=false, porque o arquivo só tem empréstimos devolvidos
+     */
+    private boolean reachesArchive(LoanFilterDTO filter) {
+        return reachesArchive(filter.getFrom()) && !Boolean.FALSE.equals(filter.getReturned());
+    }
+
+    private Stream<LoanDetails> streamDetails(String entity, LocalDate from, LocalDate to, String isbn) {
+        List<String> predicates = new ArrayList<>();
+        if (from != null) {
+            predicates.add("l.loanDate >= :from");
+        }
+        if (to != null) {
+            predicates.add("l.loanDate <= :to");
+        }
+        if (isbn != null) {
+            predicates.add("b.isbn = :isbn");
+        }
+        TypedQuery<LoanDetails> query = entityManager.createQuery(LoanDetails.SELECT + "from " + entity + " l join l.book b"
+                + (predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates))
+                + " order by l.id", LoanDetails.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE);
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        if (isbn != null) {
+            query.setParameter("isbn", isbn);
+        }
+        return query.getResultStream();
+    }
+
+    /**
+     * O select pelos ids não garante ordem: a página volta na ordem dos ids
+     */
+    private static <T> List<T> inOrder(List<Long> ids, List<T> rows, Function<T, Long> id) {
+        Map<Long, T> byId = rows.stream().collect(Collectors.toMap(id, Function.identity(), (first, second) -> first));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private <T> List<T> load(String jpql, Class<T> type, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return entityManager.createQuery(jpql, type).setParameter("ids", ids).getResultList();
+    }
+
+    /**
+     * SQL com os ids que atendem ao filtro; cada filtro informado vira um predicado com seu parâmetro
+     */
+    private class LoanQuery {
+        private final List<Branch> branches = new ArrayList<>();
+        private final List<Object> parameters = new ArrayList<>();
+        private final List<String> orderColumns = new ArrayList<>();
+        private final List<String> orderBy = new ArrayList<>();
+
+        LoanQuery(LoanFilterDTO filter, Long after, boolean archive, Sort sort) {
+            for (Sort.Order order : sort) {
+                String column = SORT_COLUMNS.get(order.getProperty());
+                if (column == null) {
+                    throw new BusinessException("Unsupported sort property: " + order.getProperty());
+                }
+                if (!orderColumns.contains(column)) {
+                    orderColumns.add(column);
+                    orderBy.add(column + (order.isDescending() ? " desc" : ""));
+                }
+            }
+            if (!orderColumns.contains("id")) {
+                orderBy.add("id");
+            }
+
+            List<String> common = new ArrayList<>();
+            if (after != null) {
+                common.add("l.id > " + parameter(after));
+            }
+            if (filter.getBookId() != null) {
+                common.add("l.id_book = " + parameter(filter.getBookId()));
+            }
+            if (filter.getFrom() != null) {
+                common.add("l.loan_date >= " + parameter(filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                common.add("l.loan_date <= " + parameter(filter.getTo()));
+            }
+            if (Boolean.TRUE.equals(filter.getReturned())) {
+                common.add("l.returned = true");
+            } else if (Boolean.FALSE.equals(filter.getReturned())) {
+                common.add("(l.returned is null or l.returned = false)");
+            }
+
+            String isbn = filter.getIsbn() == null ? null : "b.isbn = " + parameter(filter.getIsbn());
+            String customer = filter.getCustomer() == null ? null : "l.customer = " + parameter(filter.getCustomer());
+            for (String table : archive ? new String[]{"loan", "loan_archive"} : new String[]{"loan"}) {
+                if (isbn != null) {
+                    branches.add(new Branch(table, true, isbn, common));
+                }
+                if (customer != null) {
+                    branches.add(new Branch(table, false, customer, common));
+                }
+                if (isbn == null && customer == null) {
+                    branches.add(new Branch(table, false, null, common));
+                }
+            }
+        }
+
+        List<Long> ids(long offset, int limit) {
+            // as colunas do sort vão no select para o order by de fora do union
+            String columns = "l.id" + orderColumns.stream().filter(column -> !column.equals("id"))
+                    .map(column -> ", l." + column).collect(Collectors.joining());
+            Query query = bind(entityManager.createNativeQuery(page(columns, false, offset, limit)));
+            return ((List<?>) query.getResultList()).stream()
+                    .map(row -> row instanceof Object[] ? ((Object[]) row)[0] : row)
+                    .map(id -> ((Number) id).longValue())
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * A página já com os dados do livro, num único select (com o union, quando há)
+         */
+        List<LoanDetails> details(long offset, int limit) {
+            NativeQuery<?> query = bind(entityManager.createNativeQuery(page(DETAILS_COLUMNS, true, offset, limit)))
+                    .unwrap(NativeQuery.class)
+                    .addScalar("id", LongType.INSTANCE)
+                    .addScalar("customer", StringType.INSTANCE)
+                    .addScalar("customer_email", StringType.INSTANCE)
+                    .addScalar("loan_date", LocalDateType.INSTANCE)
+                    .addScalar("returned", BooleanType.INSTANCE)
+                    .addScalar("book_id", LongType.INSTANCE)
+                    .addScalar("title", StringType.INSTANCE)
+                    .addScalar("author", StringType.INSTANCE)
+                    .addScalar("isbn", StringType.INSTANCE);
+            return query.getResultList().stream()
+                    .map(Object[].class::cast)
+                    .map(row -> new LoanDetails((Long) row[0], (String) row[1], (String) row[2], (LocalDate) row[3],
+                            (Boolean) row[4], (Long) row[5], (String) row[6], (String) row[7], (String) row[8]))
+                    .collect(Collectors.toList());
+        }
+
+        long count() {
+            String sql = "select count(*) from (" + union("l.id", false) + ") ids";
+            return ((Number) bind(entityManager.createNativeQuery(sql)).getSingleResult()).longValue();
+        }
+
+        private String page(String columns, boolean joinBook, long offset, int limit) {
+            String sql = branches.size() == 1
+                    ? branches.get(0).sql(columns, joinBook) + " order by "
+                    + orderBy.stream().map(column -> "l." + column).collect(Collectors.joining(", "))
+                    : "select * from (" + union(columns, joinBook) + ") page order by " + String.join(", ", orderBy);
+            return sql + " limit " + limit + " offset " + offset;
+        }
+
+        private String union(String columns, boolean joinBook) {
+            return branches.stream().map(branch -> branch.sql(columns, joinBook)).collect(Collectors.joining(" union "));
+        }
+
+        private String parameter(Object value) {
+            parameters.add(value);
+            return ":p" + (parameters.size() - 1);
+        }
+
+        private Query bind(Query query) {
+            for (int i = 0; i < parameters.size(); i++) {
+                query.setParameter("p" + i, parameters.get(i));
+            }
+            return query;
+        }
+    }
+
+    /**
+     * Um select do union; o livro só entra no join quando o filtro ou o select precisam dele
+     */
+    private static class Branch {
+        private final String table;
+        private final boolean joinBook;
+        private final List<String> predicates;
+
+        Branch(String table, boolean joinBook, String predicate, List<String> common) {
+            this.table = table;
+            this.joinBook = joinBook;
+            this.predicates = new ArrayList<>(common);
+            if (predicate != null) {
+                predicates.add(0, predicate);
+            }
+        }
+
+        String sql(String columns, boolean selectsBook) {
+            return "select " + columns + " from " + table + " l"
+                    + (joinBook || selectsBook ? " join book b on b.id = l.id_book" : "")
+                    + (predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.edsontofolo.libraryapi.model.repository;
+
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query(value = "select e from OutboxEvent e where e.availableAt <= :now order by e.id")
+    List<OutboxEvent> findReady(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query(value = "delete from OutboxEvent e where e.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    long countByAvailableAtIsNotNull();
+
+    long countByAvailableAtIsNull();
+
+    @Query(value = "select min(e.createdAt) from OutboxEvent e where e.availableAt is not null")
+    Instant findOldestPendingCreatedAt();
+}
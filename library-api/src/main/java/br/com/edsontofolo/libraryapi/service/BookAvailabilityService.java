@@ -0,0 +1,32 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Livros emprestados no momento, mantidos em memória para que a criação de um empréstimo
+ * não precise consultar o banco.
+ */
+public interface BookAvailabilityService {
+
+    boolean isLoaned(Long bookId);
+
+    /**
+     * Executa a ação com o lock do livro; ações sobre o mesmo livro são serializadas
+     */
+    <T> T withLock(Long bookId, Supplier<T> action);
+
+    /**
+     * Executa a ação com os locks de todos os livros, adquiridos sempre na mesma ordem
+     */
+    <T> T withLocks(Collection<Long> bookIds, Supplier<T> action);
+
+    void markLoaned(Long bookId);
+
+    void markReturned(Long bookId);
+
+    /**
+     * Recarrega os livros emprestados a partir do banco
+     */
+    void rebuild();
+}
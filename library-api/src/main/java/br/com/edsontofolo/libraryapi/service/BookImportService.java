@@ -0,0 +1,18 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.BookImportResultDTO;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+public interface BookImportService {
+
+    enum Format { NDJSON, CSV }
+
+    /**
+     * Lê o conteúdo linha a linha e grava os livros em blocos, sem carregar o arquivo inteiro em memória.
+     * O resultado de cada linha é entregue ao consumer assim que o bloco dela é gravado.
+     */
+    void importBooks(Reader content, Format format, Consumer<BookImportResultDTO> results) throws IOException;
+}
@@ -0,0 +1,20 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+
+import java.util.List;
+
+public interface BookSearchService {
+
+    /**
+     * @return livros que contém todos os termos da busca (palavra inteira ou início de palavra),
+     * ordenados por relevância
+     */
+    List<Book> search(String query, int limit);
+
+    void index(Book book);
+
+    void remove(Book book);
+
+    void rebuild();
+}
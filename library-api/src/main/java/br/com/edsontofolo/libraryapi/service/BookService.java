@@ -4,6 +4,7 @@ import br.com.edsontofolo.libraryapi.model.entity.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface BookService {
@@ -17,5 +18,7 @@ public interface BookService {
 
     Page<Book> find(Book filter, Pageable pageRequest);
 
+    List<Book> findAfter(Book filter, Long afterId, int limit);
+
     Optional<Book> getByIsbn(String isbn);
 }
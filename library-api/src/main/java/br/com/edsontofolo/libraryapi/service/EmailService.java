@@ -0,0 +1,13 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface EmailService {
+
+    /**
+     * @return completa quando cada mensagem foi enviada ou desistida (dead letter); termina com erro
+     * se o serviço parar antes de tentar todas
+     */
+    CompletableFuture<Void> sendMails(String message, List<String> emails);
+}
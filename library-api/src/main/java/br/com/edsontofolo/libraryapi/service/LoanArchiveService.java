@@ -0,0 +1,11 @@
+package br.com.edsontofolo.libraryapi.service;
+
+public interface LoanArchiveService {
+
+    /**
+     * Move para loan_archive os empréstimos devolvidos com data anterior a LoanRepository.archiveCutoff(),
+     * em blocos, cada bloco numa transação
+     * @return quantidade de empréstimos arquivados
+     */
+    int archive();
+}
@@ -0,0 +1,22 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanBatchResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanReturnResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.ReturnLoansDTO;
+
+import java.util.List;
+
+public interface LoanBatchService {
+
+    /**
+     * Cria os empréstimos aceitos e recusa os demais sem interromper o lote.
+     * @return um resultado por item, na ordem recebida
+     */
+    List<LoanBatchResultDTO> createAll(List<LoanDTO> loans);
+
+    /**
+     * Devolve os empréstimos informados por id e os empréstimos em aberto dos isbns informados
+     */
+    LoanReturnResultDTO returnAll(ReturnLoansDTO loans);
+}
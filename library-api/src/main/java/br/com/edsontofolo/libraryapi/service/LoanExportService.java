@@ -0,0 +1,18 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanExportFilterDTO;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public interface LoanExportService {
+
+    enum Format { NDJSON, CSV }
+
+    /**
+     * Escreve os empréstimos do filtro, com os dados do livro, à medida que são lidos do banco,
+     * sem montar a lista em memória.
+     * @return quantidade de empréstimos exportados
+     */
+    long export(LoanExportFilterDTO filter, Format format, Writer out) throws IOException;
+}
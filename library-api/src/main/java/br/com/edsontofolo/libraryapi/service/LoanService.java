@@ -0,0 +1,48 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.projection.LateLoan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface LoanService {
+    /**
+     * Dias de empréstimo; depois disso o empréstimo em aberto está atrasado
+     */
+    int LOAN_DAYS = 4;
+
+    Loan save(Loan loan);
+
+    Optional<Loan> findById(Long id);
+
+    Loan update(Loan loan);
+
+    Page<Loan> find(LoanFilterDTO filter, Pageable pageRe);
+
+    Page<LoanDetails> findDetails(LoanFilterDTO filter, Pageable page);
+
+    List<LoanDetails> findAfter(LoanFilterDTO filter, Long afterId, int limit);
+
+    Page<Loan> getLoansByBook(Book book, Pageable pageable);
+
+    /**
+     * Todo o histórico do livro, inclusive os empréstimos arquivados
+     */
+    Page<LoanDetails> getLoanDetailsByBook(Book book, Pageable pageable);
+
+    /**
+     * Como getLoanDetailsByBook, paginado por keyset
+     */
+    List<LoanDetails> getLoanDetailsByBookAfter(Book book, Long afterId, int limit);
+
+    /**
+     * @return próximo bloco de empréstimos atrasados com id maior que afterId (null para o primeiro bloco)
+     */
+    List<LateLoan> getLateLoans(Long afterId, int limit);
+}
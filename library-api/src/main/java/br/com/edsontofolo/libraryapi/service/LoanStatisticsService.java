@@ -0,0 +1,32 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanStatisticsDTO;
+import br.com.edsontofolo.libraryapi.model.projection.LoanState;
+
+/**
+ * Contadores de empréstimos (total, em aberto e atrasados) no geral, por livro e por cliente,
+ * mantidos em memória a cada alteração para que as leituras não consultem o banco.
+ */
+public interface LoanStatisticsService {
+
+    LoanStatisticsDTO global();
+
+    LoanStatisticsDTO byBook(Long bookId);
+
+    LoanStatisticsDTO byCustomer(String customer);
+
+    /**
+     * Conta um empréstimo gravado
+     */
+    void added(LoanState loan);
+
+    /**
+     * Desconta um empréstimo; uma devolução é o removed do estado anterior seguido do added do novo
+     */
+    void removed(LoanState loan);
+
+    /**
+     * Recalcula todos os contadores a partir do banco
+     */
+    void rebuild();
+}
@@ -0,0 +1,17 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+
+/**
+ * Consumidor dos eventos do outbox: todo bean que implementa a interface recebe todos os eventos, na thread do relay.
+ *
+ * A entrega é pelo menos uma vez: se um consumidor falha, o evento volta para todos na próxima tentativa, então o
+ * processamento deve ser idempotente (o id do evento não muda entre as tentativas).
+ */
+public interface OutboxEventConsumer {
+
+    /**
+     * @throws RuntimeException para que o evento seja entregue de novo depois do backoff
+     */
+    void consume(OutboxEvent event);
+}
@@ -0,0 +1,22 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+
+public interface OutboxService {
+
+    /**
+     * Grava o evento na transação corrente, que precisa existir: o evento só fica visível se a alteração for confirmada
+     */
+    void publish(OutboxEvent.Type type, Loan loan);
+
+    void publish(OutboxEvent.Type type, Book book);
+
+    /**
+     * Entrega os eventos disponíveis aos OutboxEventConsumer, em blocos, com os consumidores fora de transação.
+     * Chamado periodicamente pela thread do relay; sem consumidores, os eventos ficam na tabela
+     * @return quantidade de eventos entregues
+     */
+    int relay();
+}
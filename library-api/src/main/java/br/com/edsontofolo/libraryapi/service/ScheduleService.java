@@ -0,0 +1,110 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.model.entity.JobCheckpoint;
+import br.com.edsontofolo.libraryapi.model.projection.LateLoan;
+import br.com.edsontofolo.libraryapi.model.repository.JobCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ScheduleService {
+
+    private static final String CRON_LATE_LOANS = "0 0 0 1/1 * ?";
+
+    static final String LATE_LOANS_JOB = "late-loans-mail";
+
+    /**
+     * @Value pega do arquivo application.properties
+     */
+    @Value("${application.mail.lateloans.message}")
+    private String mensagem;
+
+    @Value("${application.schedule.late-loans.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${application.schedule.late-loans.chunk-timeout:10m}")
+    private Duration chunkTimeout;
+
+    private final LoanService loanService;
+    private final EmailService emailService;
+    private final JobCheckpointRepository checkpointRepository;
+
+    /**
+     * Percorre os empréstimos atrasados em blocos de tamanho fixo (keyset pelo id), de modo que
+     * só um bloco fica em memória por vez. O último id de um bloco só é gravado depois que todos os
+     * emails dele foram enviados ou foram para as dead letters; se a execução do dia for interrompida,
+     * a próxima continua a partir do último bloco concluído e reenvia o bloco em andamento.
+     */
+    @Scheduled(cron = CRON_LATE_LOANS)
+    public void sendMailToLateLoans() {
+        JobCheckpoint checkpoint = startOrResume(LocalDate.now());
+
+        Long afterId = checkpoint.getLastId();
+        List<LateLoan> chunk;
+        do {
+            chunk = loanService.getLateLoans(afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            List<String> emails = chunk.stream()
+                    .map(LateLoan::getCustomerEmail)
+                    .collect(Collectors.toList());
+            awaitDelivery(emailService.sendMails(mensagem, emails));
+
+            afterId = chunk.get(chunk.size() - 1).getId();
+            checkpoint.setLastId(afterId);
+            checkpoint = checkpointRepository.save(checkpoint);
+        } while (chunk.size() == chunkSize);
+
+        checkpoint.setCompleted(true);
+        checkpointRepository.save(checkpoint);
+    }
+
+    private void awaitDelivery(CompletableFuture<Void> delivery) {
+        try {
+            delivery.get(chunkTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending late loan mails", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Late loan mails not delivered", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Late loan mails not delivered within " + chunkTimeout, e);
+        }
+    }
+
+    /**
+     * Retoma a execução do dia se ela não terminou; caso contrário começa uma nova
+     */
+    private JobCheckpoint startOrResume(LocalDate today) {
+        return checkpointRepository.findById(LATE_LOANS_JOB)
+                .filter(c -> today.equals(c.getRunDate()) && !Boolean.TRUE.equals(c.getCompleted()))
+                .orElseGet(() -> JobCheckpoint.builder()
+                        .jobName(LATE_LOANS_JOB)
+                        .runDate(today)
+                        .completed(false)
+                        .build());
+    }
+
+    /**
+     * http://www.cronmaker.com/?1
+     * cron = seg min hr dia mes ano
+     */
+    @Scheduled(cron = "0 40 9 1/1 * ?")
+    public void testeAgendamentoTarefas() {
+        System.out.println("AGENDAMENTO DE TAREFAS EXECUTADO COM SUCESSO");
+    }
+}
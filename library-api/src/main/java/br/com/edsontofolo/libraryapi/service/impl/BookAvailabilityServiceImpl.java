@@ -0,0 +1,133 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.BookAvailabilityService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Ids dos livros emprestados divididos em faixas (stripes) pelo hash do id, cada uma com seu lock
+ * e seu LongHashSet. Empréstimos do mesmo livro disputam o mesmo lock; livros diferentes quase
+ * sempre caem em faixas diferentes e não esperam um pelo outro.
+ *
+ * O índice vale para esta instância: é montado do banco na inicialização e só enxerga as
+ * alterações feitas pelo LoanService.
+ */
+@Slf4j
+@Service
+public class BookAvailabilityServiceImpl implements BookAvailabilityService {
+
+    static final int STRIPES = 64;
+    private static final int STRIPE_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private LoanRepository repository;
+
+    public BookAvailabilityServiceImpl(LoanRepository repository) {
+        this.repository = repository;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public boolean isLoaned(Long bookId) {
+        Stripe stripe = stripe(bookId);
+        stripe.lock.lock();
+        try {
+            return stripe.loaned.contains(bookId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public <T> T withLock(Long bookId, Supplier<T> action) {
+        Stripe stripe = stripe(bookId);
+        stripe.lock.lock();
+        try {
+            return action.get();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Trava as faixas em ordem crescente de índice, então dois lotes com livros em comum não
+     * entram em deadlock. A ação roda com as faixas travadas, e o ReentrantLock deixa que
+     * isLoaned e markLoaned sejam chamados de dentro dela.
+     */
+    @Override
+    public <T> T withLocks(Collection<Long> bookIds, Supplier<T> action) {
+        BitSet indexes = new BitSet(STRIPES);
+        bookIds.forEach(bookId -> indexes.set(index(bookId)));
+        List<ReentrantLock> locked = new ArrayList<>(indexes.cardinality());
+        try {
+            for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+                stripes[i].lock.lock();
+                locked.add(stripes[i].lock);
+            }
+            return action.get();
+        } finally {
+            locked.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    @Override
+    public void markLoaned(Long bookId) {
+        withLock(bookId, () -> stripe(bookId).loaned.add(bookId));
+    }
+
+    @Override
+    public void markReturned(Long bookId) {
+        withLock(bookId, () -> stripe(bookId).loaned.remove(bookId));
+    }
+
+    @Override
+    @PostConstruct
+    public void rebuild() {
+        List<Long> bookIds = repository.findLoanedBookIds();
+        LongHashSet[] loaned = new LongHashSet[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            loaned[i] = new LongHashSet(bookIds.size() / STRIPES);
+        }
+        for (Long bookId : bookIds) {
+            loaned[index(bookId)].add(bookId);
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            Stripe stripe = stripes[i];
+            stripe.lock.lock();
+            try {
+                stripe.loaned = loaned[i];
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        log.info("Availability index built with {} loaned books", bookIds.size());
+    }
+
+    private Stripe stripe(Long bookId) {
+        return stripes[index(bookId)];
+    }
+
+    /**
+     * Hash multiplicativo: os bits mais altos espalham ids sequenciais entre as faixas
+     */
+    private static int index(long bookId) {
+        return (int) ((bookId * 0x9E3779B97F4A7C15L) >>> STRIPE_SHIFT);
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private LongHashSet loaned = new LongHashSet();
+    }
+}
@@ -0,0 +1,299 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.api.dto.BookDTO;
+import br.com.edsontofolo.libraryapi.api.dto.BookImportResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.BookImportResultDTO.Status;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.service.BookImportService;
+import br.com.edsontofolo.libraryapi.service.BookSearchService;
+import br.com.edsontofolo.libraryapi.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Cada bloco faz uma única consulta "isbn in (...)" para achar os duplicados
+ * e grava os livros aceitos numa transação própria, com os inserts agrupados pelo
+ * hibernate.jdbc.batch_size, junto com o evento BOOK_CREATED de cada livro no outbox. O contexto de persistência é limpo ao fim de cada bloco,
+ * e o índice de busca só recebe os livros depois do commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final String[] CSV_COLUMNS = {"title", "author", "isbn"};
+
+    @Value("${application.books.import.chunk-size:500}")
+    private int chunkSize;
+
+    private final BookRepository repository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheManager cacheManager;
+    private final BookSearchService searchService;
+    private final OutboxService outboxService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void importBooks(Reader content, Format format, Consumer<BookImportResultDTO> results) throws IOException {
+        BufferedReader reader = content instanceof BufferedReader ? (BufferedReader) content : new BufferedReader(content);
+        List<ImportLine> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+
+        if (format == Format.CSV) {
+            lineNumber++;
+            if (!isCsvHeader(reader.readLine())) {
+                results.accept(invalid(lineNumber, null, "CSV header must be: title,author,isbn"));
+                return;
+            }
+        }
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            chunk.add(new ImportLine(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, format, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, format, results);
+        }
+    }
+
+    private void importChunk(List<ImportLine> chunk, Format format, Consumer<BookImportResultDTO> results) {
+        List<BookImportResultDTO> report = new ArrayList<>(chunk.size());
+        List<ImportLine> accepted = new ArrayList<>(chunk.size());
+        Set<String> isbnsInChunk = new HashSet<>();
+
+        for (ImportLine line : chunk) {
+            String error = parse(line, format);
+            if (error != null) {
+                report.add(invalid(line.number, line.dto == null ? null : line.dto.getIsbn(), error));
+            } else if (!isbnsInChunk.add(line.dto.getIsbn())) {
+                report.add(duplicated(line));
+            } else {
+                accepted.add(line);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            Set<ImportLine> created;
+            try {
+                created = new HashSet<>(transaction.execute(status -> saveChunk(accepted, isbnsInChunk)));
+            } catch (DataIntegrityViolationException e) {
+                created = saveOneByOne(accepted, transaction);
+            }
+            for (ImportLine line : accepted) {
+                if (created.contains(line)) {
+                    searchService.index(line.book);
+                    report.add(BookImportResultDTO.builder()
+                            .line(line.number)
+                            .status(Status.CREATED)
+                            .isbn(line.book.getIsbn())
+                            .id(line.book.getId())
+                            .build());
+                } else {
+                    report.add(duplicated(line));
+                }
+            }
+            evictMissingIsbns(accepted);
+        }
+
+        report.sort((a, b) -> Long.compare(a.getLine(), b.getLine()));
+        report.forEach(results);
+    }
+
+    /**
+     * @return as linhas gravadas; as demais têm isbn já cadastrado
+     */
+    private List<ImportLine> saveChunk(List<ImportLine> accepted, Set<String> isbns) {
+        Set<String> existing = new HashSet<>(repository.findIsbnsIn(isbns));
+        List<ImportLine> created = accepted.stream()
+                .filter(line -> !existing.contains(line.dto.getIsbn()))
+                .collect(Collectors.toList());
+        created.forEach(line -> line.book = toBook(line.dto));
+        repository.saveAll(created.stream().map(line -> line.book).collect(Collectors.toList()));
+        created.forEach(line -> outboxService.publish(OutboxEvent.Type.BOOK_CREATED, line.book));
+        repository.flush();
+        entityManager.clear();
+        return created;
+    }
+
+    /**
+     * Um isbn gravado por outro import ou POST /api/books depois do findIsbnsIn derruba o bloco no índice único
+     * ux_book_isbn; o bloco é refeito linha a linha, cada uma na sua transação, e a linha que ainda colidir fica
+     * de fora (DUPLICATED) sem interromper a resposta
+     */
+    private Set<ImportLine> saveOneByOne(List<ImportLine> accepted, TransactionTemplate transaction) {
+        Set<ImportLine> created = new HashSet<>();
+        for (ImportLine line : accepted) {
+            try {
+                Book book = transaction.execute(status -> {
+                    if (repository.existsByIsbn(line.dto.getIsbn())) {
+                        return null;
+                    }
+                    Book saved = repository.save(toBook(line.dto));
+                    outboxService.publish(OutboxEvent.Type.BOOK_CREATED, saved);
+                    repository.flush();
+                    return saved;
+                });
+                if (book != null) {
+                    line.book = book;
+                    created.add(line);
+                }
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Isbn {} saved concurrently during the import", line.dto.getIsbn());
+            }
+        }
+        return created;
+    }
+
+    private static Book toBook(BookDTO dto) {
+        return Book.builder().title(dto.getTitle()).author(dto.getAuthor()).isbn(dto.getIsbn()).build();
+    }
+
+    /**
+     * Uma busca anterior por um desses isbns pode ter deixado "não encontrado" no cache do BookServiceImpl
+     */
+    private void evictMissingIsbns(List<ImportLine> lines) {
+        Cache cache = cacheManager.getCache(BookServiceImpl.BOOKS_BY_ISBN_CACHE);
+        if (cache != null) {
+            lines.forEach(line -> cache.evict(line.dto.getIsbn()));
+        }
+    }
+
+    /**
+     * @return mensagem de erro ou null quando a linha é válida
+     */
+    private String parse(ImportLine line, Format format) {
+        try {
+            line.dto = format == Format.CSV ? fromCsv(line.content) : objectMapper.readValue(line.content, BookDTO.class);
+        } catch (JsonProcessingException e) {
+            return "Malformed line: " + e.getOriginalMessage();
+        } catch (IllegalArgumentException e) {
+            return "Malformed line: " + e.getMessage();
+        }
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(line.dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        return null;
+    }
+
+    private BookDTO fromCsv(String content) {
+        List<String> values = splitCsv(content);
+        if (values.size() != CSV_COLUMNS.length) {
+            throw new IllegalArgumentException("expected " + CSV_COLUMNS.length + " columns but found " + values.size());
+        }
+        return BookDTO.builder().title(values.get(0)).author(values.get(1)).isbn(values.get(2)).build();
+    }
+
+    private boolean isCsvHeader(String header) {
+        if (header == null) {
+            return false;
+        }
+        List<String> columns = splitCsv(header).stream().map(String::trim).collect(Collectors.toList());
+        if (columns.size() != CSV_COLUMNS.length) {
+            return false;
+        }
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            if (!CSV_COLUMNS[i].equalsIgnoreCase(columns.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Separa uma linha CSV (RFC 4180) considerando campos entre aspas e aspas duplicadas ("")
+     */
+    static List<String> splitCsv(String content) {
+        List<String> values = new ArrayList<>(CSV_COLUMNS.length);
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < content.length() && content.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static BookImportResultDTO invalid(long line, String isbn, String error) {
+        return BookImportResultDTO.builder().line(line).status(Status.INVALID).isbn(isbn).error(error).build();
+    }
+
+    private static BookImportResultDTO duplicated(ImportLine line) {
+        return BookImportResultDTO.builder()
+                .line(line.number)
+                .status(Status.DUPLICATED)
+                .isbn(line.dto.getIsbn())
+                .error("Isbn já cadastrado.")
+                .build();
+    }
+
+    private static class ImportLine {
+        private final long number;
+        private final String content;
+        private BookDTO dto;
+        private Book book;
+
+        private ImportLine(long number, String content) {
+            this.number = number;
+            this.content = content;
+        }
+    }
+}
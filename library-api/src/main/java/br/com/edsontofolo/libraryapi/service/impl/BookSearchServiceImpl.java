@@ -0,0 +1,204 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.service.BookSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Índice invertido em memória sobre título, autor e isbn.
+ *
+ * Cada termo aponta para os ids dos livros e o peso do campo onde ele aparece.
+ * Os termos ficam ordenados, então um termo da busca casa com a palavra inteira ou com o início
+ * dela ("harr" encontra "harry"), sem varrer a tabela book como o like '%x%' do BookServiceImpl.find.
+ *
+ * As alterações feitas dentro de uma transação só entram no índice depois do commit.
+ */
+@Slf4j
+@Service
+public class BookSearchServiceImpl implements BookSearchService {
+
+    static final int ISBN_WEIGHT = 8;
+    static final int TITLE_WEIGHT = 4;
+    static final int AUTHOR_WEIGHT = 2;
+
+    private static final int REBUILD_PAGE = 1_000;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern ISBN_SEPARATORS = Pattern.compile("[\\s-]");
+    private static final Pattern ISBN = Pattern.compile("[0-9]+x?");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}");
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new ConcurrentHashMap<>();
+
+    private BookRepository repository;
+
+    public BookSearchServiceImpl(BookRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public List<Book> search(String query, int limit) {
+        Set<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Integer> scores = null;
+        for (String term : terms) {
+            Map<Long, Integer> termScores = score(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Long> ids = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        Map<Long, Book> books = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream().map(books::get).filter(book -> book != null).collect(Collectors.toList());
+    }
+
+    @Override
+    public void index(Book book) {
+        afterCommit(() -> put(book.getId(), document(book)));
+    }
+
+    @Override
+    public void remove(Book book) {
+        afterCommit(() -> put(book.getId(), Collections.emptyMap()));
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Long after = null;
+        List<Book> page;
+        int count = 0;
+        do {
+            page = repository.findAfter(after, null, null, null, PageRequest.of(0, REBUILD_PAGE));
+            for (Book book : page) {
+                put(book.getId(), document(book));
+                after = book.getId();
+            }
+            count += page.size();
+        } while (page.size() == REBUILD_PAGE);
+        log.info("Book search index built with {} books and {} terms", count, postings.size());
+    }
+
+    /**
+     * Pontuação de um termo da busca: peso integral quando casa com a palavra inteira e metade quando casa com o início dela
+     */
+    private Map<Long, Integer> score(String term) {
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            boolean exact = entry.getKey().equals(term);
+            entry.getValue().forEach((id, weight) ->
+                    scores.merge(id, exact ? weight * 2 : weight, Math::max));
+        }
+        return scores;
+    }
+
+    private synchronized void put(Long id, Map<String, Integer> document) {
+        Map<String, Integer> previous = document.isEmpty() ? documents.remove(id) : documents.put(id, document);
+        if (previous != null) {
+            previous.keySet().forEach(term -> postings.computeIfPresent(term, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            }));
+        }
+        document.forEach((term, weight) ->
+                postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(id, weight));
+    }
+
+    private static Map<String, Integer> document(Book book) {
+        Map<String, Integer> document = new HashMap<>();
+        tokenize(book.getAuthor()).forEach(term -> document.merge(term, AUTHOR_WEIGHT, Integer::sum));
+        tokenize(book.getTitle()).forEach(term -> document.merge(term, TITLE_WEIGHT, Integer::sum));
+        if (book.getIsbn() != null) {
+            String isbn = compactIsbn(book.getIsbn());
+            if (!isbn.isEmpty()) {
+                document.merge(isbn, ISBN_WEIGHT, Integer::sum);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Um isbn digitado com hífens ou espaços vira um único termo, como no índice
+     */
+    private static Set<String> terms(String query) {
+        if (query == null) {
+            return Collections.emptySet();
+        }
+        String isbn = compactIsbn(query);
+        return ISBN.matcher(isbn).matches() ? Collections.singleton(isbn) : tokenize(query);
+    }
+
+    /**
+     * Minúsculas, sem acentos e separado em palavras
+     */
+    private static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : NON_WORD.split(normalize(text))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static String compactIsbn(String isbn) {
+        return ISBN_SEPARATORS.matcher(normalize(isbn)).replaceAll("");
+    }
+
+    private static String normalize(String text) {
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.config.ReplicaRead;
+import br.com.edsontofolo.libraryapi.exception.BusinessException;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.service.BookSearchService;
+import br.com.edsontofolo.libraryapi.service.BookService;
+import br.com.edsontofolo.libraryapi.service.OutboxService;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Os livros buscados por id e por isbn ficam em cache (ver spring.cache.* no application.properties).
+ * O cache guarda também as buscas sem resultado, por isso o save sobrescreve as duas entradas.
+ * As instâncias do cache são as mesmas para todos os chamadores: quem for alterar um livro trabalha numa cópia.
+ * A verificação de isbn duplicado no save continua indo ao banco.
+ * As listagens são @ReplicaRead e podem ir às réplicas de leitura, quando houver (ReadReplicaConfig); getById e
+ * getByIsbn ficam no primário porque também servem aos fluxos de escrita.
+ * Save, update e delete gravam o evento do outbox na mesma transação; o índice de busca só muda depois do commit.
+ */
+@Service
+public class BookServiceImpl implements BookService {
+    public static final String BOOKS_CACHE = "books";
+    public static final String BOOKS_BY_ISBN_CACHE = "booksByIsbn";
+
+    private BookRepository repository;
+    private BookSearchService searchService;
+    private OutboxService outboxService;
+    private TransactionTemplate transaction;
+
+    public BookServiceImpl(BookRepository repository, BookSearchService searchService, OutboxService outboxService,
+                           PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.searchService = searchService;
+        this.outboxService = outboxService;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Caching(put = {
+            @CachePut(cacheNames = BOOKS_CACHE, key = "#result.id"),
+            @CachePut(cacheNames = BOOKS_BY_ISBN_CACHE, key = "#result.isbn")
+    })
+    public Book save(Book book) {
+        if (repository.existsByIsbn(book.getIsbn())) {
+            throw new BusinessException("Isbn já cadastrado.");
+        }
+        Book savedBook = saveWithEvent(book, OutboxEvent.Type.BOOK_CREATED);
+        searchService.index(savedBook);
+        return savedBook;
+    }
+
+    @Override
+    @Cacheable(cacheNames = BOOKS_CACHE, key = "#id")
+    @Transactional(readOnly = true)
+    public Optional<Book> getById(Long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = BOOKS_CACHE, key = "#book.id", condition = "#book.id != null"),
+            @CacheEvict(cacheNames = BOOKS_BY_ISBN_CACHE, key = "#book.isbn", condition = "#book.isbn != null")
+    })
+    public void delete(Book book) {
+        if (book == null || book.getId() == null) {
+            throw new IllegalArgumentException("Book id can not be null.");
+        }
+        transaction.execute(status -> {
+            this.repository.delete(book);
+            outboxService.publish(OutboxEvent.Type.BOOK_DELETED, book);
+            return null;
+        });
+        searchService.remove(book);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = BOOKS_CACHE, key = "#book.id", condition = "#book.id != null"),
+            @CacheEvict(cacheNames = BOOKS_BY_ISBN_CACHE, key = "#book.isbn", condition = "#book.isbn != null")
+    })
+    public Book update(Book book) {
+        if (book == null || book.getId() == null) {
+            throw new IllegalArgumentException("Book id can not be null.");
+        }
+        Book updatedBook = saveWithEvent(book, OutboxEvent.Type.BOOK_UPDATED);
+        searchService.index(updatedBook);
+        return updatedBook;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public Page<Book> find(Book filter, Pageable pageRequest) {
+        Example<Book> example = Example.of(filter,
+                ExampleMatcher
+                        .matching()
+                        .withIgnoreCase()
+                        .withIgnoreNullValues()
+                        .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+        return repository.findAll(example, pageRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public List<Book> findAfter(Book filter, Long afterId, int limit) {
+        return repository.findAfter(afterId, filter.getTitle(), filter.getAuthor(), filter.getIsbn(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Cacheable(cacheNames = BOOKS_BY_ISBN_CACHE, key = "#isbn")
+    @Transactional(readOnly = true)
+    public Optional<Book> getByIsbn(String isbn) {
+        return repository.findByIsbn(isbn);
+    }
+
+    private Book saveWithEvent(Book book, OutboxEvent.Type type) {
+        return transaction.execute(status -> {
+            Book saved = repository.save(book);
+            outboxService.publish(type, saved);
+            return saved;
+        });
+    }
+}
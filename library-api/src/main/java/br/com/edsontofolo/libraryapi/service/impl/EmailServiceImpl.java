@@ -0,0 +1,339 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.config.EmailDispatchProperties;
+import br.com.edsontofolo.libraryapi.service.EmailService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envio assíncrono: sendMails enfileira uma mensagem por destinatário e retorna sem esperar o envio;
+ * com a fila cheia, espera até enqueueTimeout por mensagem. Threads de envio consomem a fila respeitando
+ * o token bucket; falhas temporárias voltam para a fila com backoff exponencial e, esgotadas as tentativas,
+ * vão para a lista de dead letters.
+ *
+ * No stop, retries agendados e mensagens que ficaram na fila vão para as dead letters, e o futuro de
+ * sendMails dessas mensagens termina com erro.
+ */
+@Slf4j
+@Service
+public class EmailServiceImpl implements EmailService {
+
+    private static final String SUBJECT = "Livro com devolução atrasada";
+
+    @Value("${application.mail.default-sender}")
+    private String sender;
+
+    private final JavaMailSender javaMailSender;
+    private final EmailDispatchProperties properties;
+    private final BlockingQueue<MailTask> queue;
+    private final TokenBucket rateLimiter;
+    private final Deque<DeadLetter> deadLetters = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger deadLetterCount = new AtomicInteger();
+    /**
+     * Mensagens aceitas que ainda não foram enviadas nem descartadas (inclui as aguardando retry)
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+    /**
+     * Mensagens esperando o backoff no retryScheduler
+     */
+    private final Set<MailTask> scheduledRetries = ConcurrentHashMap.newKeySet();
+
+    private final Counter enqueued;
+    private final Counter filtered;
+    private final Counter rejected;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter deadLettered;
+    private final Timer sendTimer;
+
+    private ExecutorService workers;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    public EmailServiceImpl(JavaMailSender javaMailSender, EmailDispatchProperties properties, MeterRegistry registry) {
+        this.javaMailSender = javaMailSender;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.rateLimiter = new TokenBucket(properties.getBurst(), properties.getRatePerSecond());
+
+        this.enqueued = registry.counter("mail.dispatch.enqueued");
+        this.filtered = registry.counter("mail.dispatch.filtered");
+        this.rejected = registry.counter("mail.dispatch.rejected");
+        this.sent = registry.counter("mail.dispatch.sent");
+        this.retried = registry.counter("mail.dispatch.retried");
+        this.deadLettered = registry.counter("mail.dispatch.dead.lettered");
+        this.sendTimer = registry.timer("mail.dispatch.send");
+        registry.gauge("mail.dispatch.queue.size", queue, BlockingQueue::size);
+        registry.gauge("mail.dispatch.pending", pending);
+        registry.gauge("mail.dispatch.dead.letters", deadLetterCount);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(properties.getConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "mail-dispatch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mail-dispatch-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < properties.getConcurrency(); i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Espera a fila esvaziar (até shutdownTimeout) antes de parar as threads
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        awaitIdle(properties.getShutdownTimeout().toMillis());
+        running = false;
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        List<MailTask> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        for (MailTask task : scheduledRetries) {
+            if (scheduledRetries.remove(task)) {
+                abandoned.add(task);
+            }
+        }
+        if (!abandoned.isEmpty()) {
+            log.warn("Mail dispatch stopped with {} messages still queued or waiting to retry", abandoned.size());
+            abandoned.forEach(task -> abandon(task, "Mail dispatch stopped before sending"));
+        }
+    }
+
+    /**
+     * Enfileira uma mensagem por destinatário, ignorando endereços nulos, vazios e repetidos.
+     * Se a fila estiver cheia espera até enqueueTimeout; o que não couber vai para as dead letters.
+     */
+    @Override
+    public CompletableFuture<Void> sendMails(String message, List<String> emails) {
+        Map<String, String> recipients = new LinkedHashMap<>();
+        for (String email : emails) {
+            String address = email == null ? "" : email.trim();
+            if (address.isEmpty() || recipients.putIfAbsent(address.toLowerCase(), address) != null) {
+                filtered.increment();
+            }
+        }
+
+        MailBatch batch = new MailBatch(recipients.size());
+        for (String address : recipients.values()) {
+            MailTask task = new MailTask(address, message, 1, batch);
+            pending.incrementAndGet();
+            if (!offer(task)) {
+                rejected.increment();
+                deadLetter(task, "Mail dispatch queue is full");
+            } else {
+                enqueued.increment();
+            }
+        }
+        return batch.completion;
+    }
+
+    /**
+     * Aguarda até que todas as mensagens aceitas tenham sido enviadas ou descartadas
+     * @return false se o tempo acabou antes
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (pending.get() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return true;
+    }
+
+    public List<DeadLetter> getDeadLetters() {
+        return new ArrayList<>(deadLetters);
+    }
+
+    private boolean offer(MailTask task) {
+        try {
+            return running && queue.offer(task, properties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void work() {
+        while (running || !queue.isEmpty()) {
+            MailTask task;
+            try {
+                task = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (task == null) {
+                    continue;
+                }
+                rateLimiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            send(task);
+        }
+    }
+
+    private void send(MailTask task) {
+        SimpleMailMessage mailMessage = new SimpleMailMessage();
+        mailMessage.setFrom(sender);
+        mailMessage.setSubject(SUBJECT);
+        mailMessage.setText(task.getMessage());
+        mailMessage.setTo(task.getEmail());
+
+        try {
+            sendTimer.record(() -> javaMailSender.send(mailMessage));
+            sent.increment();
+            finish(task);
+        } catch (MailParseException | MailPreparationException e) {
+            // endereço ou conteúdo inválido: tentar de novo não adianta
+            deadLetter(task, e.getMessage());
+        } catch (RuntimeException e) {
+            // MailException ou falha inesperada do sender: a thread continua e a mensagem segue contada em pending
+            retry(task, e);
+        }
+    }
+
+    private void retry(MailTask task, RuntimeException cause) {
+        if (task.getAttempt() >= properties.getMaxAttempts()) {
+            deadLetter(task, cause.getMessage());
+            return;
+        }
+        if (!running) {
+            abandon(task, cause.getMessage());
+            return;
+        }
+        long backoff = (long) (properties.getInitialBackoff().toMillis()
+                * Math.pow(properties.getBackoffMultiplier(), task.getAttempt() - 1));
+        MailTask next = new MailTask(task.getEmail(), task.getMessage(), task.getAttempt() + 1, task.getBatch());
+        log.debug("Retrying mail to {} in {} ms: {}", task.getEmail(), backoff, cause.getMessage());
+        retried.increment();
+        scheduledRetries.add(next);
+        try {
+            retryScheduler.schedule(() -> {
+                // o stop pode ter levado a mensagem para as dead letters
+                if (scheduledRetries.remove(next) && !offer(next)) {
+                    if (running) {
+                        deadLetter(next, "Mail dispatch queue is full");
+                    } else {
+                        abandon(next, "Mail dispatch stopped before sending");
+                    }
+                }
+            }, backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (scheduledRetries.remove(next)) {
+                abandon(task, cause.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Mensagem descartada pelo stop: vai para as dead letters e o futuro do lote termina com erro
+     */
+    private void abandon(MailTask task, String error) {
+        task.getBatch().fail(new IllegalStateException("Mail to " + task.getEmail() + " not sent: " + error));
+        deadLetter(task, error);
+    }
+
+    private void deadLetter(MailTask task, String error) {
+        log.warn("Giving up mail to {} after {} attempt(s): {}", task.getEmail(), task.getAttempt(), error);
+        deadLetters.addLast(new DeadLetter(task.getEmail(), task.getMessage(), task.getAttempt(), error, Instant.now()));
+        if (deadLetterCount.incrementAndGet() > properties.getDeadLetterCapacity()) {
+            deadLetters.pollFirst();
+            deadLetterCount.decrementAndGet();
+        }
+        deadLettered.increment();
+        finish(task);
+    }
+
+    private void finish(MailTask task) {
+        pending.decrementAndGet();
+        task.getBatch().done();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class MailTask {
+        private final String email;
+        private final String message;
+        private final int attempt;
+        private final MailBatch batch;
+    }
+
+    /**
+     * Mensagens de uma chamada a sendMails ainda não concluídas
+     */
+    private static class MailBatch {
+        private final AtomicInteger remaining;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        MailBatch(int size) {
+            remaining = new AtomicInteger(size);
+            if (size == 0) {
+                completion.complete(null);
+            }
+        }
+
+        void done() {
+            if (remaining.decrementAndGet() == 0) {
+                completion.complete(null);
+            }
+        }
+
+        void fail(Throwable error) {
+            completion.completeExceptionally(error);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class DeadLetter {
+        private final String email;
+        private final String message;
+        private final int attempts;
+        private final String error;
+        private final Instant failedAt;
+    }
+}
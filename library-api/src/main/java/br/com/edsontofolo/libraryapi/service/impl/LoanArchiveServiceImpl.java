@@ -0,0 +1,56 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.LoanArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Mantém a tabela loan só com os empréstimos em aberto e os recentes. Cada bloco é copiado para
+ * loan_archive e apagado de loan na mesma transação, então um empréstimo está sempre em uma das
+ * duas tabelas e nunca nas duas. Os empréstimos arquivados já estão devolvidos, por isso não mexem
+ * na disponibilidade dos livros nem nas estatísticas (o rebuild delas também lê o arquivo).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoanArchiveServiceImpl implements LoanArchiveService {
+
+    @Value("${application.loans.archive.batch-size:500}")
+    private int batchSize;
+
+    private final LoanRepository repository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    @Scheduled(cron = "${application.loans.archive.cron:0 30 2 * * ?}")
+    public int archive() {
+        LocalDate cutoff = repository.archiveCutoff();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int archived = 0;
+        int moved;
+        do {
+            moved = transaction.execute(status -> {
+                List<Long> ids = repository.findArchivableIds(cutoff, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                repository.copyToArchive(ids, Instant.now());
+                return repository.deleteByIdIn(ids);
+            });
+            archived += moved;
+        } while (moved == batchSize);
+        log.info("Loans archived before {}: {}", cutoff, archived);
+        return archived;
+    }
+}
@@ -0,0 +1,248 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanBatchResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanBatchResultDTO.Status;
+import br.com.edsontofolo.libraryapi.api.dto.LoanDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanReturnResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.ReturnLoansDTO;
+import br.com.edsontofolo.libraryapi.exception.BusinessException;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+import br.com.edsontofolo.libraryapi.model.projection.LoanState;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.BookAvailabilityService;
+import br.com.edsontofolo.libraryapi.service.LoanBatchService;
+import br.com.edsontofolo.libraryapi.service.LoanStatisticsService;
+import br.com.edsontofolo.libraryapi.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Criação e devolução de empréstimos em lote.
+ *
+ * Todos os isbns do lote são resolvidos numa única consulta "isbn in (...)". A disponibilidade vem do
+ * índice em memória, consultado com os locks de todos os livros do lote, e os empréstimos aceitos
+ * são gravados numa transação com os inserts agrupados pelo hibernate.jdbc.batch_size.
+ * Os eventos do outbox (LOAN_CREATED e LOAN_RETURNED) vão na mesma transação dos empréstimos, como em LoanServiceImpl.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoanBatchServiceImpl implements LoanBatchService {
+
+    @Value("${application.loans.batch.max-size:500}")
+    private int maxSize;
+
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+    private final BookAvailabilityService availabilityService;
+    private final LoanStatisticsService statisticsService;
+    private final OutboxService outboxService;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+
+    @Override
+    public List<LoanBatchResultDTO> createAll(List<LoanDTO> loans) {
+        if (loans.size() > maxSize) {
+            throw new BusinessException("Batch must have at most " + maxSize + " loans");
+        }
+        LoanBatchResultDTO[] results = new LoanBatchResultDTO[loans.size()];
+        List<Integer> valid = new ArrayList<>(loans.size());
+
+        for (int i = 0; i < loans.size(); i++) {
+            LoanDTO dto = loans.get(i);
+            String error = validate(dto);
+            if (error != null) {
+                results[i] = result(i, dto, Status.INVALID, error);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        Set<String> isbns = valid.stream().map(i -> loans.get(i).getIsbn()).collect(Collectors.toSet());
+        Map<String, Book> books = isbns.isEmpty() ? new HashMap<>() : bookRepository.findByIsbnIn(isbns).stream()
+                .collect(Collectors.toMap(Book::getIsbn, Function.identity()));
+
+        List<Integer> candidates = new ArrayList<>(valid.size());
+        Set<String> isbnsInBatch = new HashSet<>();
+        for (Integer i : valid) {
+            LoanDTO dto = loans.get(i);
+            if (!books.containsKey(dto.getIsbn())) {
+                results[i] = result(i, dto, Status.BOOK_NOT_FOUND, "Book not found for entered isbn");
+            } else if (!isbnsInBatch.add(dto.getIsbn())) {
+                results[i] = result(i, dto, Status.UNAVAILABLE, "Book already loaned");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            Set<Long> bookIds = candidates.stream().map(i -> books.get(loans.get(i).getIsbn()).getId()).collect(Collectors.toSet());
+            availabilityService.withLocks(bookIds, () -> save(loans, candidates, books, results));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Uma consulta classifica os ids (e outra acha os empréstimos em aberto dos isbns); a devolução
+     * é um único update com os locks dos livros, e só então os livros saem do índice em memória.
+     */
+    @Override
+    public LoanReturnResultDTO returnAll(ReturnLoansDTO loans) {
+        Set<Long> ids = distinct(loans.getIds());
+        Set<String> isbns = distinct(loans.getIsbns());
+        if (ids.size() + isbns.size() > maxSize) {
+            throw new BusinessException("Batch must have at most " + maxSize + " loans");
+        }
+
+        LoanReturnResultDTO result = new LoanReturnResultDTO();
+        Map<Long, LoanState> open = new LinkedHashMap<>();
+        if (!ids.isEmpty()) {
+            Map<Long, LoanState> found = loanRepository.findStatesByIdIn(ids).stream()
+                    .collect(Collectors.toMap(LoanState::getId, Function.identity()));
+            for (Long id : ids) {
+                LoanState state = found.get(id);
+                if (state == null) {
+                    result.getNotFound().add(id);
+                } else if (!state.isOpen()) {
+                    result.getAlreadyReturned().add(id);
+                } else {
+                    open.put(id, state);
+                }
+            }
+        }
+        if (!isbns.isEmpty()) {
+            Set<String> loaned = new HashSet<>();
+            for (LoanState state : loanRepository.findOpenStatesByIsbnIn(isbns)) {
+                open.putIfAbsent(state.getId(), state);
+                loaned.add(state.getIsbn());
+            }
+            isbns.stream().filter(isbn -> !loaned.contains(isbn)).forEach(result.getNotLoaned()::add);
+        }
+        if (open.isEmpty()) {
+            return result;
+        }
+
+        Set<Long> bookIds = open.values().stream().map(LoanState::getBookId).collect(Collectors.toSet());
+        availabilityService.withLocks(bookIds, () -> returnOpen(open, bookIds, result));
+        return result;
+    }
+
+    private Void returnOpen(Map<Long, LoanState> open, Set<Long> bookIds, LoanReturnResultDTO result) {
+        Set<Long> stillLoaned = new TransactionTemplate(transactionManager).execute(status -> {
+            int updated = loanRepository.markReturned(open.keySet());
+            if (updated < open.size()) {
+                // devolvidos por outra requisição entre a consulta e o update
+                loanRepository.findStatesByIdIn(open.keySet()).stream()
+                        .filter(state -> !state.isOpen())
+                        .forEach(state -> {
+                            open.remove(state.getId());
+                            result.getAlreadyReturned().add(state.getId());
+                        });
+            }
+            // o update limpou o contexto: os empréstimos são relidos já devolvidos
+            loanRepository.findAllById(open.keySet())
+                    .forEach(loan -> outboxService.publish(OutboxEvent.Type.LOAN_RETURNED, loan));
+            return new HashSet<>(loanRepository.findLoanedBookIdsIn(bookIds));
+        });
+        result.getReturned().addAll(open.keySet());
+        // o update em lote não passa pelos eventos do Hibernate que alimentam as estatísticas
+        open.values().forEach(state -> {
+            statisticsService.removed(state);
+            statisticsService.added(state.toBuilder().returned(true).build());
+        });
+        bookIds.stream().filter(bookId -> !stillLoaned.contains(bookId)).forEach(availabilityService::markReturned);
+        return null;
+    }
+
+    /**
+     * Roda com os locks dos livros: ninguém empresta esses livros entre a verificação e o markLoaned
+     */
+    private Void save(List<LoanDTO> loans, List<Integer> candidates, Map<String, Book> books, LoanBatchResultDTO[] results) {
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        List<Loan> entities = new ArrayList<>(candidates.size());
+        for (Integer i : candidates) {
+            LoanDTO dto = loans.get(i);
+            Book book = books.get(dto.getIsbn());
+            if (availabilityService.isLoaned(book.getId())) {
+                results[i] = result(i, dto, Status.UNAVAILABLE, "Book already loaned");
+            } else {
+                accepted.add(i);
+                entities.add(Loan.builder()
+                        .book(book)
+                        .customer(dto.getCustomer())
+                        .customerEmail(dto.getEmail())
+                        .loanDate(LocalDate.now())
+                        .returned(false)
+                        .build());
+            }
+        }
+        if (entities.isEmpty()) {
+            return null;
+        }
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            loanRepository.saveAll(entities)
+                    .forEach(loan -> outboxService.publish(OutboxEvent.Type.LOAN_CREATED, loan));
+            return null;
+        });
+        for (int j = 0; j < accepted.size(); j++) {
+            Loan loan = entities.get(j);
+            availabilityService.markLoaned(loan.getBook().getId());
+            int i = accepted.get(j);
+            results[i] = LoanBatchResultDTO.builder().index(i).status(Status.CREATED).isbn(loan.getBook().getIsbn()).id(loan.getId()).build();
+        }
+        return null;
+    }
+
+    private static <T> Set<T> distinct(List<T> values) {
+        Set<T> distinct = new LinkedHashSet<>();
+        if (values != null) {
+            values.stream().filter(Objects::nonNull).forEach(distinct::add);
+        }
+        return distinct;
+    }
+
+    private String validate(LoanDTO dto) {
+        if (dto == null) {
+            return "Loan must not be null";
+        }
+        Set<ConstraintViolation<LoanDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static LoanBatchResultDTO result(int index, LoanDTO dto, Status status, String error) {
+        return LoanBatchResultDTO.builder()
+                .index(index)
+                .status(status)
+                .isbn(dto == null ? null : dto.getIsbn())
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanExportFilterDTO;
+import br.com.edsontofolo.libraryapi.config.ReplicaRead;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.LoanExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Lê os empréstimos por um Stream do JPA (cursor com fetch size limitado) numa transação
+ * somente leitura. As linhas são projeções LoanDetails, que não entram no contexto de
+ * persistência, então a memória usada não cresce com o tamanho da exportação.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoanExportServiceImpl implements LoanExportService {
+
+    static final String CSV_HEADER = "id,customer,customer_email,loan_date,returned,book_id,book_title,book_author,book_isbn";
+
+    private final LoanRepository repository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public long export(LoanExportFilterDTO filter, Format format, Writer out) throws IOException {
+        ObjectWriter lineWriter = objectMapper.writerFor(LoanDetails.class);
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+
+        long count = 0;
+        try (Stream<LoanDetails> loans = repository.streamDetails(filter.getFrom(), filter.getTo(), filter.getIsbn())) {
+            Iterator<LoanDetails> iterator = loans.iterator();
+            while (iterator.hasNext()) {
+                LoanDetails loan = iterator.next();
+                out.write(format == Format.CSV ? csvLine(loan) : lineWriter.writeValueAsString(loan));
+                out.write('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String csvLine(LoanDetails loan) {
+        return String.join(",",
+                csv(loan.getId()),
+                csv(loan.getCustomer()),
+                csv(loan.getCustomerEmail()),
+                csv(loan.getLoanDate()),
+                csv(loan.getReturned()),
+                csv(loan.getBookId()),
+                csv(loan.getBookTitle()),
+                csv(loan.getBookAuthor()),
+                csv(loan.getBookIsbn()));
+    }
+
+    /**
+     * Valores com vírgula, aspas ou quebra de linha vão entre aspas, com as aspas internas duplicadas
+     */
+    static String csv(Object value) {
+        String text = Objects.toString(value, "");
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
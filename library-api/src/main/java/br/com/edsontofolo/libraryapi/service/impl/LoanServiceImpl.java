@@ -0,0 +1,147 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
+import br.com.edsontofolo.libraryapi.config.ReplicaRead;
+import br.com.edsontofolo.libraryapi.exception.BusinessException;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+import br.com.edsontofolo.libraryapi.model.projection.LateLoan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.BookAvailabilityService;
+import br.com.edsontofolo.libraryapi.service.LoanService;
+import br.com.edsontofolo.libraryapi.service.OutboxService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * As listagens são @ReplicaRead e podem ir às réplicas de leitura, quando houver (ReadReplicaConfig); findById fica
+ * no primário porque carrega o empréstimo que a devolução altera.
+ * O save e o update gravam o evento do outbox na transação do empréstimo, confirmada ainda com o lock do livro.
+ */
+@Service
+public class LoanServiceImpl implements LoanService {
+
+    private LoanRepository repository;
+    private BookAvailabilityService availabilityService;
+    private OutboxService outboxService;
+    private TransactionTemplate transaction;
+
+    public LoanServiceImpl(LoanRepository repository, BookAvailabilityService availabilityService,
+                           OutboxService outboxService, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.availabilityService = availabilityService;
+        this.outboxService = outboxService;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * A disponibilidade vem do índice em memória; o lock do livro impede que dois empréstimos
+     * simultâneos do mesmo livro passem pela verificação
+     */
+    @Override
+    public Loan save(Loan loan) {
+        Long bookId = loan.getBook().getId();
+        return availabilityService.withLock(bookId, () -> {
+            if (availabilityService.isLoaned(bookId)) {
+                throw new BusinessException("Book already loaned");
+            }
+            Loan saved = saveWithEvent(loan, OutboxEvent.Type.LOAN_CREATED);
+            if (!Boolean.TRUE.equals(saved.getReturned())) {
+                availabilityService.markLoaned(bookId);
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    public Optional<Loan> findById(Long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public Loan update(Loan loan) {
+        OutboxEvent.Type type = Boolean.TRUE.equals(loan.getReturned())
+                ? OutboxEvent.Type.LOAN_RETURNED : OutboxEvent.Type.LOAN_UPDATED;
+        if (loan.getBook() == null || loan.getBook().getId() == null) {
+            return saveWithEvent(loan, type);
+        }
+        Long bookId = loan.getBook().getId();
+        return availabilityService.withLock(bookId, () -> {
+            Loan saved = saveWithEvent(loan, type);
+            if (!Boolean.TRUE.equals(saved.getReturned())) {
+                availabilityService.markLoaned(bookId);
+            } else if (!repository.existsByBookAndNotReturned(saved.getBook())) {
+                // a devolução de um empréstimo antigo não libera o livro se houver outro em aberto
+                availabilityService.markReturned(bookId);
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public Page<Loan> find(LoanFilterDTO filter, Pageable page) {
+        return repository.findByFilter(filter, page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public Page<LoanDetails> findDetails(LoanFilterDTO filter, Pageable page) {
+        return repository.findDetailsByFilter(filter, page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public List<LoanDetails> findAfter(LoanFilterDTO filter, Long afterId, int limit) {
+        return repository.findDetailsByFilterAfter(filter, afterId, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public Page<Loan> getLoansByBook(Book book, Pageable pageable) {
+        return repository.findByBook(book, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public Page<LoanDetails> getLoanDetailsByBook(Book book, Pageable pageable) {
+        return repository.findDetailsByFilter(LoanFilterDTO.builder().bookId(book.getId()).build(), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public List<LoanDetails> getLoanDetailsByBookAfter(Book book, Long afterId, int limit) {
+        return repository.findDetailsByFilterAfter(LoanFilterDTO.builder().bookId(book.getId()).build(), afterId, limit);
+    }
+
+    @Override
+    public List<LateLoan> getLateLoans(Long afterId, int limit) {
+        LocalDate threeDaysAgo = LocalDate.now().minusDays(LOAN_DAYS);
+        return repository.findLateLoansAfter(threeDaysAgo, afterId, PageRequest.of(0, limit));
+    }
+
+    private Loan saveWithEvent(Loan loan, OutboxEvent.Type type) {
+        return transaction.execute(status -> {
+            Loan saved = repository.save(loan);
+            outboxService.publish(type, saved);
+            return saved;
+        });
+    }
+}
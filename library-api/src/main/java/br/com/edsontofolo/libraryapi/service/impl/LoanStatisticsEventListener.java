@@ -0,0 +1,127 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanState;
+import br.com.edsontofolo.libraryapi.service.LoanStatisticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+
+/**
+ * Repassa ao LoanStatisticsService cada insert, update e delete de Loan feito pelo Hibernate,
+ * depois do commit da transação (um rollback não altera os contadores). O update traz o estado
+ * anterior da entidade, então uma devolução desconta o empréstimo em aberto e conta o devolvido.
+ *
+ * Updates em lote por JPQL (LoanRepository.markReturned) não geram eventos; quem os executa
+ * avisa o LoanStatisticsService diretamente.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoanStatisticsEventListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final LoanStatisticsService statisticsService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Loan.class.equals(persister.getMappedClass());
+    }
+
+    /**
+     * Ainda abstrato no Hibernate 5.4, que só chama requiresPostCommitHandling
+     */
+    @Override
+    @Deprecated
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Loan) {
+            apply(() -> statisticsService.added(state(event.getPersister(), event.getState())));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Loan) || event.getOldState() == null) {
+            return;
+        }
+        LoanState before = state(event.getPersister(), event.getOldState());
+        LoanState after = state(event.getPersister(), event.getState());
+        if (!before.equals(after)) {
+            apply(() -> {
+                statisticsService.removed(before);
+                statisticsService.added(after);
+            });
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Loan) {
+            apply(() -> statisticsService.removed(state(event.getPersister(), event.getDeletedState())));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    /**
+     * A transação já foi confirmada: uma falha aqui só deixa os contadores desatualizados até o próximo rebuild
+     */
+    private static void apply(Runnable update) {
+        try {
+            update.run();
+        } catch (RuntimeException e) {
+            log.warn("Could not update loan statistics", e);
+        }
+    }
+
+    private static LoanState state(EntityPersister persister, Object[] values) {
+        Book book = (Book) values[persister.getEntityMetamodel().getPropertyIndex("book")];
+        return LoanState.builder()
+                .bookId(book == null ? null : book.getId())
+                .customer((String) values[persister.getEntityMetamodel().getPropertyIndex("customer")])
+                .loanDate((LocalDate) values[persister.getEntityMetamodel().getPropertyIndex("loanDate")])
+                .returned((Boolean) values[persister.getEntityMetamodel().getPropertyIndex("returned")])
+                .build();
+    }
+}
@@ -0,0 +1,196 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanStatisticsDTO;
+import br.com.edsontofolo.libraryapi.model.projection.LoanGroup;
+import br.com.edsontofolo.libraryapi.model.projection.LoanState;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.LoanService;
+import br.com.edsontofolo.libraryapi.service.LoanStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Cada contador é um LongAdder, que distribui os incrementos concorrentes entre células
+ * e é somado só na leitura. Um empréstimo em aberto fica num balde pela data do empréstimo
+ * até vencer o prazo; na primeira operação de cada dia os baldes vencidos passam para "overdue",
+ * então a leitura continua sendo só a soma de três contadores.
+ *
+ * As alterações seguram o lock de leitura (rodam juntas); a virada do dia e o rebuild seguram
+ * o de escrita. O rebuild roda na inicialização, antes de a aplicação receber requisições.
+ */
+@Slf4j
+@Service
+public class LoanStatisticsServiceImpl implements LoanStatisticsService {
+
+    private static final LoanStatisticsDTO EMPTY = new LoanStatisticsDTO(0, 0, 0);
+
+    private final LoanRepository repository;
+    private final PlatformTransactionManager transactionManager;
+    private final Clock clock;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Counters global = new Counters();
+    private Map<Long, Counters> byBook = new ConcurrentHashMap<>();
+    private Map<String, Counters> byCustomer = new ConcurrentHashMap<>();
+    /**
+     * Empréstimos em aberto com data até este dia (inclusive) estão atrasados
+     */
+    private volatile LocalDate overdueThrough;
+
+    @Autowired
+    public LoanStatisticsServiceImpl(LoanRepository repository, PlatformTransactionManager transactionManager) {
+        this(repository, transactionManager, Clock.systemDefaultZone());
+    }
+
+    public LoanStatisticsServiceImpl(LoanRepository repository, PlatformTransactionManager transactionManager, Clock clock) {
+        this.repository = repository;
+        this.transactionManager = transactionManager;
+        this.clock = clock;
+        this.overdueThrough = overdueThrough();
+    }
+
+    @Override
+    public LoanStatisticsDTO global() {
+        rollIfNeeded();
+        return global.toDTO();
+    }
+
+    @Override
+    public LoanStatisticsDTO byBook(Long bookId) {
+        rollIfNeeded();
+        Counters counters = byBook.get(bookId);
+        return counters == null ? EMPTY : counters.toDTO();
+    }
+
+    @Override
+    public LoanStatisticsDTO byCustomer(String customer) {
+        rollIfNeeded();
+        Counters counters = byCustomer.get(customer);
+        return counters == null ? EMPTY : counters.toDTO();
+    }
+
+    @Override
+    public void added(LoanState loan) {
+        record(loan.getBookId(), loan.getCustomer(), loan.getLoanDate(), loan.isOpen(), 1);
+    }
+
+    @Override
+    public void removed(LoanState loan) {
+        record(loan.getBookId(), loan.getCustomer(), loan.getLoanDate(), loan.isOpen(), -1);
+    }
+
+    @Override
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            overdueThrough = overdueThrough();
+            global = new Counters();
+            byBook = new ConcurrentHashMap<>();
+            byCustomer = new ConcurrentHashMap<>();
+            new TransactionTemplate(transactionManager).execute(status -> {
+                try (Stream<LoanGroup> groups = Stream.concat(repository.streamGroups(), repository.streamArchivedGroups())) {
+                    groups.forEach(group -> record(group.getBookId(), group.getCustomer(), group.getLoanDate(),
+                            !Boolean.TRUE.equals(group.getReturned()), group.getCount()));
+                }
+                return null;
+            });
+            log.info("Loan statistics built: {}", global.toDTO());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void record(Long bookId, String customer, LocalDate loanDate, boolean open, long delta) {
+        rollIfNeeded();
+        lock.readLock().lock();
+        try {
+            LocalDate through = overdueThrough;
+            global.add(loanDate, open, delta, through);
+            if (bookId != null) {
+                byBook.computeIfAbsent(bookId, id -> new Counters()).add(loanDate, open, delta, through);
+            }
+            if (customer != null) {
+                byCustomer.computeIfAbsent(customer, name -> new Counters()).add(loanDate, open, delta, through);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void rollIfNeeded() {
+        if (!overdueThrough().isAfter(overdueThrough)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            LocalDate through = overdueThrough();
+            if (through.isAfter(overdueThrough)) {
+                global.roll(through);
+                byBook.values().forEach(counters -> counters.roll(through));
+                byCustomer.values().forEach(counters -> counters.roll(through));
+                overdueThrough = through;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private LocalDate overdueThrough() {
+        return LocalDate.now(clock).minusDays(LoanService.LOAN_DAYS);
+    }
+
+    private static class Counters {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder active = new LongAdder();
+        private final LongAdder overdue = new LongAdder();
+        /**
+         * Empréstimos em aberto ainda no prazo, pela data do empréstimo
+         */
+        private final Map<LocalDate, LongAdder> onTime = new ConcurrentHashMap<>();
+
+        void add(LocalDate loanDate, boolean open, long delta, LocalDate overdueThrough) {
+            total.add(delta);
+            if (!open) {
+                return;
+            }
+            active.add(delta);
+            if (loanDate == null) {
+                return;
+            }
+            if (loanDate.isAfter(overdueThrough)) {
+                onTime.computeIfAbsent(loanDate, date -> new LongAdder()).add(delta);
+            } else {
+                overdue.add(delta);
+            }
+        }
+
+        void roll(LocalDate overdueThrough) {
+            Iterator<Map.Entry<LocalDate, LongAdder>> buckets = onTime.entrySet().iterator();
+            while (buckets.hasNext()) {
+                Map.Entry<LocalDate, LongAdder> bucket = buckets.next();
+                if (!bucket.getKey().isAfter(overdueThrough)) {
+                    overdue.add(bucket.getValue().sum());
+                    buckets.remove();
+                }
+            }
+        }
+
+        LoanStatisticsDTO toDTO() {
+            return new LoanStatisticsDTO(total.sum(), active.sum(), overdue.sum());
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package br.com.edsontofolo.libraryapi.service.impl;
+
+import br.com.edsontofolo.libraryapi.config.OutboxProperties;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+import br.com.edsontofolo.libraryapi.model.repository.OutboxEventRepository;
+import br.com.edsontofolo.libraryapi.service.OutboxEventConsumer;
+import br.com.edsontofolo.libraryapi.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Outbox transacional: o evento é gravado na mesma transação do empréstimo ou do livro, e uma thread própria
+ * (fora do taskScheduler dos jobs) entrega os eventos aos OutboxEventConsumer e os apaga.
+ *
+ * Os consumidores rodam fora de transação: a de um consumidor que falha não marca o bloco como rollback-only.
+ * Depois das chamadas, os entregues são apagados e as falhas reagendadas, cada grupo na sua transação;
+ * se a aplicação cair no meio, o bloco é entregue de novo.
+ * Um evento com falha volta depois do backoff sem segurar os seguintes, então a ordem entre eventos do mesmo
+ * empréstimo só é garantida enquanto não há falhas. Um relay por banco: instâncias a mais entregariam em dobro.
+ * Sem nenhum consumidor registrado o relay não entrega nada: os eventos ficam na tabela e o atraso aparece
+ * em outbox.lag.seconds.
+ */
+@Slf4j
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final int ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository repository;
+    private final ObjectProvider<OutboxEventConsumer> consumers;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transaction;
+    private final ObjectMapper objectMapper;
+
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter exhausted;
+    private final Timer deliveryLag;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+    private volatile Instant oldestPending;
+
+    private ScheduledExecutorService relayThread;
+
+    public OutboxServiceImpl(OutboxEventRepository repository, ObjectProvider<OutboxEventConsumer> consumers,
+                             OutboxProperties properties, PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper, MeterRegistry registry) {
+        this.repository = repository;
+        this.consumers = consumers;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+
+        this.delivered = registry.counter("outbox.delivered");
+        this.failed = registry.counter("outbox.failed");
+        this.exhausted = registry.counter("outbox.exhausted");
+        this.deliveryLag = registry.timer("outbox.delivery.lag");
+        registry.gauge("outbox.pending", pending);
+        registry.gauge("outbox.dead", dead);
+        // idade do evento pendente mais antigo: cresce entre as leituras se o relay parar
+        registry.gauge("outbox.lag.seconds", this, service -> service.lagMillis() / 1000.0);
+    }
+
+    @PostConstruct
+    public void start() {
+        relayThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!consumers.orderedStream().findAny().isPresent()) {
+            log.warn("No OutboxEventConsumer registered: outbox events are kept until one is");
+        }
+        long interval = properties.getPollInterval().toMillis();
+        relayThread.scheduleWithFixedDelay(this::relaySafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        relayThread.shutdown();
+        relayThread.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEvent.Type type, Loan loan) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", loan.getId());
+        payload.put("bookId", loan.getBook() == null ? null : loan.getBook().getId());
+        payload.put("customer", loan.getCustomer());
+        payload.put("email", loan.getCustomerEmail());
+        payload.put("loanDate", loan.getLoanDate() == null ? null : loan.getLoanDate().toString());
+        payload.put("returned", loan.getReturned());
+        save(type, loan.getId(), payload);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEvent.Type type, Book book) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", book.getId());
+        payload.put("title", book.getTitle());
+        payload.put("author", book.getAuthor());
+        payload.put("isbn", book.getIsbn());
+        save(type, book.getId(), payload);
+    }
+
+    @Override
+    public synchronized int relay() {
+        List<OutboxEventConsumer> targets = consumers.orderedStream().collect(Collectors.toList());
+        if (targets.isEmpty()) {
+            refreshLag();
+            return 0;
+        }
+        int total = 0;
+        List<OutboxEvent> events;
+        do {
+            Instant now = Instant.now();
+            events = transaction.execute(status -> repository.findReady(now, PageRequest.of(0, properties.getBatchSize())));
+            total += deliver(events, targets, now);
+        } while (events.size() == properties.getBatchSize());
+        refreshLag();
+        return total;
+    }
+
+    private void relaySafely() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed, retrying in {}", properties.getPollInterval(), e);
+        }
+    }
+
+    private int deliver(List<OutboxEvent> events, List<OutboxEventConsumer> targets, Instant now) {
+        List<Long> deliveredIds = new ArrayList<>(events.size());
+        List<OutboxEvent> failures = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            try {
+                targets.forEach(consumer -> consumer.consume(event));
+                deliveredIds.add(event.getId());
+                deliveryLag.record(Duration.between(event.getCreatedAt(), Instant.now()));
+            } catch (RuntimeException e) {
+                retryLater(event, e, now);
+                failures.add(event);
+            }
+        }
+        if (!failures.isEmpty()) {
+            transaction.executeWithoutResult(status -> repository.saveAll(failures));
+        }
+        if (!deliveredIds.isEmpty()) {
+            transaction.executeWithoutResult(status -> repository.deleteByIdIn(deliveredIds));
+            delivered.increment(deliveredIds.size());
+        }
+        return deliveredIds.size();
+    }
+
+    /**
+     * Só altera o evento lido; quem chama grava as falhas do bloco depois das entregas
+     */
+    private void retryLater(OutboxEvent event, RuntimeException error, Instant now) {
+        failed.increment();
+        event.setAttempts(event.getAttempts() + 1);
+        String message = String.valueOf(error.getMessage());
+        event.setLastError(message.length() > ERROR_LENGTH ? message.substring(0, ERROR_LENGTH) : message);
+        if (event.getAttempts() >= properties.getMaxAttempts()) {
+            exhausted.increment();
+            event.setAvailableAt(null);
+            log.error("Outbox event {} ({}) not delivered after {} attempts", event.getId(), event.getEventType(),
+                    event.getAttempts(), error);
+            return;
+        }
+        double backoff = properties.getInitialBackoff().toMillis()
+                * Math.pow(properties.getBackoffMultiplier(), event.getAttempts() - 1);
+        event.setAvailableAt(now.plusMillis((long) Math.min(backoff, properties.getMaxBackoff().toMillis())));
+        log.warn("Outbox event {} ({}) failed on attempt {}: {}", event.getId(), event.getEventType(),
+                event.getAttempts(), message);
+    }
+
+    private void refreshLag() {
+        pending.set(repository.countByAvailableAtIsNotNull());
+        dead.set(repository.countByAvailableAtIsNull());
+        oldestPending = repository.findOldestPendingCreatedAt();
+    }
+
+    private long lagMillis() {
+        Instant oldest = oldestPending;
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis());
+    }
+
+    private void save(OutboxEvent.Type type, Long aggregateId, Map<String, Object> payload) {
+        Instant now = Instant.now();
+        try {
+            repository.save(OutboxEvent.builder()
+                    .eventType(type)
+                    .aggregateId(aggregateId)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(now)
+                    .availableAt(now)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + type + " event", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Loan passa a usar a sequence loan_seq com incremento 50 (otimizador pooled do Hibernate), o que permite
+ * agrupar os inserts de empréstimos em batch; o auto_increment da coluna id só sai na V7. Em Java porque o início da
+ * sequence depende do maior id já gravado: com o pooled, o primeiro id entregue é start - 50 + 1.
+ */
+public class V4__Create_loan_sequence extends BaseJavaMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long maxId;
+            try (ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) from loan")) {
+                resultSet.next();
+                maxId = resultSet.getLong(1);
+            }
+            statement.execute("create sequence loan_seq start with " + (maxId + ALLOCATION_SIZE)
+                    + " increment by " + ALLOCATION_SIZE);
+        }
+    }
+}
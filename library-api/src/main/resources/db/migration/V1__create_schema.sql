@@ -0,0 +1,30 @@
+-- Esquema gerado até então pelo Hibernate (ddl-auto) a partir de Book, Loan e JobCheckpoint
+
+create sequence book_seq start with 1 increment by 50;
+
+create table book (
+    id bigint not null,
+    title varchar(255),
+    author varchar(255),
+    isbn varchar(255),
+    constraint pk_book primary key (id)
+);
+
+create table loan (
+    id bigint auto_increment not null,
+    customer varchar(60),
+    id_book bigint,
+    loan_date date,
+    returned boolean,
+    customer_email varchar(255),
+    constraint pk_loan primary key (id),
+    constraint fk_loan_book foreign key (id_book) references book (id)
+);
+
+create table job_checkpoint (
+    job_name varchar(60) not null,
+    run_date date,
+    last_id bigint,
+    completed boolean,
+    constraint pk_job_checkpoint primary key (job_name)
+);
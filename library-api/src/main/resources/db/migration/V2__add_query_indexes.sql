@@ -0,0 +1,12 @@
+-- existsByIsbn, findByIsbn, findIsbnsIn
+create unique index ux_book_isbn on book (isbn);
+
+-- existsByBookAndNotReturned, findByBook, findDetailsByBook, findByBookAfter, findLoanedBookIds
+-- (o H2 já indexa a FK id_book sozinho; outros bancos não, e este cobre também o filtro por returned)
+create index ix_loan_book_returned on loan (id_book, returned);
+
+-- findByBookIsbnOrCustomer, findDetailsByBookIsbnOrCustomer
+create index ix_loan_customer on loan (customer);
+
+-- findByLoansDateLessThanAndNotResturned, findLateLoansAfter
+create index ix_loan_loan_date_returned on loan (loan_date, returned);
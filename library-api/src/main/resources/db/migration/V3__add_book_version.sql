@@ -0,0 +1,4 @@
+-- Versão e data da última alteração do livro, usadas no ETag/Last-Modified dos GETs condicionais
+
+alter table book add column version bigint default 0 not null;
+alter table book add column last_modified timestamp;
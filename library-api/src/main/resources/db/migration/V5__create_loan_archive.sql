@@ -0,0 +1,23 @@
+-- Empréstimos devolvidos há mais de application.loans.archive.after-days, movidos de loan pelo LoanArchiveService.
+-- Mesmas colunas e ids de loan; as consultas por período leem as duas tabelas só quando o período alcança o arquivo.
+
+create table loan_archive (
+    id bigint not null,
+    customer varchar(60),
+    id_book bigint,
+    loan_date date,
+    returned boolean,
+    customer_email varchar(255),
+    archived_at timestamp,
+    constraint pk_loan_archive primary key (id),
+    constraint fk_loan_archive_book foreign key (id_book) references book (id)
+);
+
+-- findDetailsByFilter com bookId ou isbn
+create index ix_loan_archive_book on loan_archive (id_book);
+
+-- findDetailsByFilter com cliente
+create index ix_loan_archive_customer on loan_archive (customer);
+
+-- streamDetails e findDetailsByFilter por período
+create index ix_loan_archive_loan_date on loan_archive (loan_date);
@@ -0,0 +1,20 @@
+-- Eventos de empréstimos e livros gravados na mesma transação da alteração (LoanServiceImpl e BookServiceImpl)
+-- e entregues aos OutboxEventConsumer pelo relay do OutboxService, que apaga cada evento depois de entregue.
+-- available_at nulo: tentativas esgotadas, o evento fica na tabela para análise.
+
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table outbox_event (
+    id bigint not null,
+    event_type varchar(30) not null,
+    aggregate_id bigint,
+    payload varchar(4000),
+    created_at timestamp not null,
+    available_at timestamp,
+    attempts int not null,
+    last_error varchar(500),
+    constraint pk_outbox_event primary key (id)
+);
+
+-- leitura do próximo bloco pelo relay
+create index ix_outbox_event_available on outbox_event (available_at, id);
@@ -0,0 +1,4 @@
+-- loan.id deixa o auto_increment da V1: os ids vêm só da sequence loan_seq (V4), como mapeado em Loan,
+-- e um insert sem id falha em vez de tirar o id de uma segunda fonte
+
+alter table loan alter column id bigint not null;
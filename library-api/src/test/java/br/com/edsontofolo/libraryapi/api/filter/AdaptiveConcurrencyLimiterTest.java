@@ -0,0 +1,99 @@
+package br.com.edsontofolo.libraryapi.api.filter;
+
+import br.com.edsontofolo.libraryapi.api.filter.AdaptiveConcurrencyLimiter.Permit;
+import br.com.edsontofolo.libraryapi.api.filter.AdaptiveConcurrencyLimiter.Priority;
+import br.com.edsontofolo.libraryapi.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class AdaptiveConcurrencyLimiterTest {
+
+    private ConcurrencyLimitProperties properties;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(50);
+        properties.setWindowSize(10);
+        limiter = new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @Test
+    @DisplayName("Must give each priority only its share of the limit")
+    public void priorityShareTest() {
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            permits.add(limiter.tryAcquire(Priority.LOW));
+        }
+
+        assertThat(permits).doesNotContainNull();
+        assertThat(limiter.tryAcquire(Priority.LOW)).isNull();
+        assertThat(limiter.isSaturated()).isFalse();
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(Priority.NORMAL)).isNotNull();
+        }
+        assertThat(limiter.tryAcquire(Priority.NORMAL)).isNull();
+        assertThat(limiter.tryAcquire(Priority.HIGH)).isNotNull();
+        assertThat(limiter.tryAcquire(Priority.HIGH)).isNull();
+        assertThat(limiter.isSaturated()).isTrue();
+
+        permits.get(0).release();
+        permits.get(0).release();
+        assertThat(limiter.snapshot().getInFlight()).isEqualTo(9);
+        assertThat(limiter.snapshot().getRejected()).containsEntry(Priority.LOW, 1L).containsEntry(Priority.HIGH, 1L);
+    }
+
+    @Test
+    @DisplayName("Must raise the limit while the latency is stable and lower it when the latency grows")
+    public void gradientTest() {
+        runWindows(5, 10, 20);
+        int raised = limiter.getLimit();
+        assertThat(raised).isGreaterThan(10);
+
+        runWindows(5, raised, 200);
+        assertThat(limiter.getLimit()).isLessThan(raised);
+        assertThat(limiter.snapshot().getShortRttMillis()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Must not raise the limit when less than half of it is in use")
+    public void applicationLimitedTest() {
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire(Priority.HIGH).release(TimeUnit.MILLISECONDS.toNanos(20));
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        assertThat(limiter.snapshot().getLongRttMillis()).isEqualTo(20);
+    }
+
+    /**
+     * Cada janela com todas as vagas ocupadas ao mesmo tempo
+     */
+    private void runWindows(int windows, int concurrency, long rttMillis) {
+        for (int w = 0; w < windows; w++) {
+            List<Permit> permits = new ArrayList<>();
+            for (int i = 0; i < Math.max(concurrency, properties.getWindowSize()); i++) {
+                Permit permit = limiter.tryAcquire(Priority.HIGH);
+                if (permit != null) {
+                    permits.add(permit);
+                }
+            }
+            permits.forEach(permit -> permit.release(TimeUnit.MILLISECONDS.toNanos(rttMillis)));
+        }
+    }
+}
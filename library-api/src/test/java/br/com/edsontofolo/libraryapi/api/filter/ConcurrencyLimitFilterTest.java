@@ -0,0 +1,91 @@
+package br.com.edsontofolo.libraryapi.api.filter;
+
+import br.com.edsontofolo.libraryapi.api.filter.AdaptiveConcurrencyLimiter.Priority;
+import br.com.edsontofolo.libraryapi.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class ConcurrencyLimitFilterTest {
+
+    private AdaptiveConcurrencyLimiter limiter;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setHigh(Collections.singletonList("POST /api/loans"));
+        properties.setLow(Arrays.asList("GET /api/books", "GET /api/books/search"));
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        limiter = new AdaptiveConcurrencyLimiter(properties);
+        filter = new ConcurrencyLimitFilter(limiter, properties);
+    }
+
+    @Test
+    @DisplayName("Must classify the requests by method and path")
+    public void priorityTest() {
+        assertThat(filter.priority(new MockHttpServletRequest("POST", "/api/loans"))).isEqualTo(Priority.HIGH);
+        assertThat(filter.priority(new MockHttpServletRequest("GET", "/api/books/search"))).isEqualTo(Priority.LOW);
+        assertThat(filter.priority(new MockHttpServletRequest("GET", "/api/loans"))).isEqualTo(Priority.NORMAL);
+    }
+
+    @Test
+    @DisplayName("Must pass the request on and release its permit")
+    public void passTest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books"), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(limiter.snapshot().getInFlight()).isZero();
+        assertThat(limiter.snapshot().getAccepted()).containsEntry(Priority.LOW, 1L);
+    }
+
+    @Test
+    @DisplayName("Must answer 429 when only the share of the priority is taken")
+    public void tooManyRequestsTest() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            limiter.tryAcquire(Priority.LOW);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books"), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(response.getContentAsString()).isEqualTo("{\"errors\":[\"Too Many Requests\"]}");
+    }
+
+    @Test
+    @DisplayName("Must answer 503 when every permit is taken")
+    public void serviceUnavailableTest() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(Priority.HIGH);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/loans"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+    }
+}
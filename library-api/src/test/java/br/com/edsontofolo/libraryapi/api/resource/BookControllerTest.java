@@ -1,8 +1,12 @@
 package br.com.edsontofolo.libraryapi.api.resource;
 
 import br.com.edsontofolo.libraryapi.api.dto.BookDTO;
+import br.com.edsontofolo.libraryapi.api.dto.BookImportResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.CursorPageDTO;
 import br.com.edsontofolo.libraryapi.exception.BusinessException;
 import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.service.BookImportService;
+import br.com.edsontofolo.libraryapi.service.BookSearchService;
 import br.com.edsontofolo.libraryapi.service.BookService;
 import br.com.edsontofolo.libraryapi.service.LoanService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -18,6 +22,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -25,10 +30,16 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.Reader;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -50,6 +61,12 @@ public class BookControllerTest {
     @MockBean
     BookService service;
 
+    @MockBean
+    BookImportService importService;
+
+    @MockBean
+    BookSearchService searchService;
+
     @Test
     @DisplayName("Must create one valid book")
     public void createBookTest() throws Exception {
@@ -141,6 +158,63 @@ public class BookControllerTest {
                 .andExpect(jsonPath("isbn").value(dto.getIsbn()));
     }
 
+    @Test
+    @DisplayName("Must return NOT MODIFIED when the book version matches If-None-Match")
+    public void getBookNotModifiedTest() throws Exception {
+        Book book = Book.builder().id(1L).title("Meu livro").author("Autor").isbn("123")
+                .version(3L).lastModified(Instant.parse("2020-01-10T10:00:00Z")).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("title").value("Meu livro"));
+    }
+
+    @Test
+    @DisplayName("Must return NOT MODIFIED when the book was not changed since If-Modified-Since")
+    public void getBookNotModifiedSinceTest() throws Exception {
+        Book book = Book.builder().id(1L).title("Meu livro").author("Autor").isbn("123")
+                .version(3L).lastModified(Instant.parse("2020-01-10T10:00:00Z")).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 10 Jan 2020 10:00:00 GMT"))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 10 Jan 2020 09:59:59 GMT"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Must return NOT MODIFIED when the page ETag matches and a new one after a book changes")
+    public void findBooksNotModifiedTest() throws Exception {
+        Book book = Book.builder().id(1L).title("Meu livro").author("Autor").isbn("123").version(0L).build();
+        BDDMockito.given(service.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Book>(Arrays.asList(book), PageRequest.of(0, 10), 1));
+
+        String etag = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=10")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=10")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        book.setVersion(1L);
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=10")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(1)));
+    }
+
     @Test
     @DisplayName("Must return NOT FOUND when searched book is not found")
     public void bookNotFoundTest() throws Exception {
@@ -198,7 +272,7 @@ public class BookControllerTest {
         Book book = Book.builder().id(id).title("Some title").author("Some author").isbn("99999").build();
         BDDMockito.given(service.getById(id)).willReturn(Optional.of(book));
         Book updatedBook = Book.builder().id(id).title(dto.getTitle()).author(dto.getAuthor()).isbn(book.getIsbn()).build();
-        BDDMockito.given(service.update(book)).willReturn(updatedBook);
+        BDDMockito.given(service.update(updatedBook)).willReturn(updatedBook);
 
         // execucao (when)
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders
@@ -214,6 +288,31 @@ public class BookControllerTest {
                 .andExpect(jsonPath("title").value(dto.getTitle()))
                 .andExpect(jsonPath("author").value(dto.getAuthor()))
                 .andExpect(jsonPath("isbn").value(book.getIsbn()));
+
+        // o livro do cache não é alterado
+        assertThat(book.getTitle()).isEqualTo("Some title");
+        assertThat(book.getAuthor()).isEqualTo("Some author");
+    }
+
+    @Test
+    @DisplayName("Must keep the cached book unchanged when the update fails")
+    public void updateConflictKeepsCachedBookTest() throws Exception {
+        Long id = 1L;
+        BookDTO dto = createNewBookDTO();
+        Book book = Book.builder().id(id).title("Some title").author("Some author").isbn("99999").version(1L).build();
+        BDDMockito.given(service.getById(id)).willReturn(Optional.of(book));
+        BDDMockito.given(service.update(Mockito.any(Book.class)))
+                .willThrow(new BusinessException("Book was changed by another request"));
+
+        mvc.perform(MockMvcRequestBuilders
+                .put(BOOK_API.concat("/").concat(Long.toString(id)))
+                .content(new ObjectMapper().writeValueAsString(dto))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        assertThat(book.getTitle()).isEqualTo("Some title");
+        assertThat(book.getAuthor()).isEqualTo("Some author");
     }
 
     @Test
@@ -269,6 +368,81 @@ public class BookControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Must filter books using a cursor")
+    public void findBooksAfterCursorTest() throws Exception {
+        BookDTO dto = createNewBookDTO();
+        Book first = Book.builder().id(11L).title(dto.getTitle()).author(dto.getAuthor()).isbn("1").build();
+        Book second = Book.builder().id(12L).title(dto.getTitle()).author(dto.getAuthor()).isbn("2").build();
+
+        BDDMockito.given(service.findAfter(Mockito.any(Book.class), Mockito.eq(10L), Mockito.eq(2)))
+                .willReturn(Arrays.asList(first, second));
+
+        String queryString = String.format("?title=%s&after=%s&size=1", dto.getTitle(), CursorPageDTO.encode(10L));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat(queryString)).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(1)))
+                .andExpect(jsonPath("content[0].id").value(11))
+                .andExpect(jsonPath("next").value(CursorPageDTO.encode(11L)))
+                .andExpect(jsonPath("totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Must return bad request for an invalid cursor")
+    public void findBooksInvalidCursorTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?after=not-a-cursor")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Invalid cursor"));
+    }
+
+    @Test
+    @DisplayName("Must return bad request when a sort is sent with the cursor")
+    public void findBooksCursorWithSortTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?after=&sort=title,desc")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Sort is not supported with a cursor"));
+
+        Mockito.verify(service, Mockito.never()).findAfter(Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Must search books by text")
+    public void searchBooksTest() throws Exception {
+        Book book = Book.builder().id(1L).title("As Cronicas de Arthur").author("OCara").isbn("123456").build();
+        BDDMockito.given(searchService.search("cronicas arth", 20)).willReturn(Arrays.asList(book));
+
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/search?q=cronicas arth")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].title").value(book.getTitle()));
+    }
+
+    @Test
+    @DisplayName("Must import books in bulk and report each line")
+    public void bulkImportTest() throws Exception {
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<BookImportResultDTO> results = invocation.getArgument(2);
+            results.accept(BookImportResultDTO.builder().line(1).status(BookImportResultDTO.Status.CREATED).isbn("123").id(1L).build());
+            results.accept(BookImportResultDTO.builder().line(2).status(BookImportResultDTO.Status.DUPLICATED).isbn("123").error(ISBN_JA_CADASTRADO).build());
+            return null;
+        }).given(importService).importBooks(Mockito.any(Reader.class), Mockito.eq(BookImportService.Format.CSV), Mockito.any());
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/bulk"))
+                .contentType(BookController.CSV)
+                .accept(BookController.NDJSON)
+                .content("title,author,isbn\nTitle,Author,123\nTitle,Author,123\n");
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(BookController.NDJSON))
+                .andExpect(content().string(
+                        "{\"line\":1,\"status\":\"CREATED\",\"isbn\":\"123\",\"id\":1}\n" +
+                        "{\"line\":2,\"status\":\"DUPLICATED\",\"isbn\":\"123\",\"error\":\"" + ISBN_JA_CADASTRADO + "\"}\n"));
+    }
+
     private BookDTO createNewBookDTO() {
         return BookDTO.builder().author("Edson").title("My incredible life").isbn("25091991").build();
     }
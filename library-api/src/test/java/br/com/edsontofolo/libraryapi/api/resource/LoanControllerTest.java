@@ -1,19 +1,28 @@
 package br.com.edsontofolo.libraryapi.api.resource;
 
 import br.com.edsontofolo.libraryapi.api.dto.BookDTO;
+import br.com.edsontofolo.libraryapi.api.dto.CursorPageDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanBatchResultDTO;
 import br.com.edsontofolo.libraryapi.api.dto.LoanDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanExportFilterDTO;
 import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanReturnResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.ReturnLoansDTO;
 import br.com.edsontofolo.libraryapi.api.dto.ReturnedLoanDTO;
 import br.com.edsontofolo.libraryapi.exception.BusinessException;
 import br.com.edsontofolo.libraryapi.model.entity.Book;
 import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
 import br.com.edsontofolo.libraryapi.service.BookService;
+import br.com.edsontofolo.libraryapi.service.LoanBatchService;
+import br.com.edsontofolo.libraryapi.service.LoanExportService;
 import br.com.edsontofolo.libraryapi.service.LoanService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.BDDMockito;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,10 +39,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.Writer;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -51,6 +63,10 @@ public class LoanControllerTest {
     private BookService bookService;
     @MockBean
     private LoanService loanService;
+    @MockBean
+    private LoanExportService exportService;
+    @MockBean
+    private LoanBatchService batchService;
 
     @Test
     @DisplayName("Must create loan")
@@ -79,6 +95,49 @@ public class LoanControllerTest {
                 .andExpect(content().string("1"));
     }
 
+    @Test
+    @DisplayName("Must create loans in batch returning the result of each item")
+    public void createBatchTest() throws Exception {
+        List<LoanDTO> loans = Arrays.asList(
+                LoanDTO.builder().isbn("123").customer("Edson").email("edson@email.com").build(),
+                LoanDTO.builder().isbn("456").customer("Edson").email("edson@email.com").build());
+        BDDMockito.given(batchService.createAll(loans)).willReturn(Arrays.asList(
+                LoanBatchResultDTO.builder().index(0).status(LoanBatchResultDTO.Status.CREATED).isbn("123").id(1L).build(),
+                LoanBatchResultDTO.builder().index(1).status(LoanBatchResultDTO.Status.UNAVAILABLE).isbn("456").error("Book already loaned").build()));
+
+        mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/batch"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(loans)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("[0].status").value("CREATED"))
+                .andExpect(jsonPath("[0].id").value(1))
+                .andExpect(jsonPath("[1].status").value("UNAVAILABLE"))
+                .andExpect(jsonPath("[1].error").value("Book already loaned"))
+                .andExpect(jsonPath("[1].id").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Must return loans in batch reporting the ones not returned")
+    public void returnBooksTest() throws Exception {
+        ReturnLoansDTO dto = ReturnLoansDTO.builder().ids(Arrays.asList(1L, 2L)).isbns(Arrays.asList("123")).build();
+        BDDMockito.given(batchService.returnAll(dto)).willReturn(LoanReturnResultDTO.builder()
+                .returned(Arrays.asList(1L, 5L))
+                .notFound(Arrays.asList(2L))
+                .build());
+
+        mvc.perform(patch(LOAN_API.concat("/returns"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("returned", hasSize(2)))
+                .andExpect(jsonPath("notFound[0]").value(2))
+                .andExpect(jsonPath("alreadyReturned", hasSize(0)))
+                .andExpect(jsonPath("notLoaned", hasSize(0)));
+    }
+
     @Test
     @DisplayName("Must throws an exception to try make loan of invalid book")
     public void invalidIsbnCreateLoanTest() throws Exception {
@@ -173,15 +232,13 @@ public class LoanControllerTest {
     @DisplayName("Must filter loans")
     public void findLoansTest() throws Exception {
         Long id = 1L;
-        Loan loan = createLoan();
-        loan.setId(id);
-        loan.setBook(Book.builder().id(1L).isbn("321").build());
+        LoanDetails loan = LoanDetails.builder().id(id).customer("Edson").loanDate(LocalDate.now()).bookId(1L).bookIsbn("321").build();
 
-        BDDMockito.given(loanService.find(Mockito.any(LoanFilterDTO.class), Mockito.any(Pageable.class)))
-                .willReturn(new PageImpl<Loan>(Arrays.asList(loan), PageRequest.of(0, 100), 1));
+        BDDMockito.given(loanService.findDetails(Mockito.any(LoanFilterDTO.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<LoanDetails>(Arrays.asList(loan), PageRequest.of(0, 100), 1));
 
         String queryString = String.format("?isbn=%s&customer=%s&page=0&size=100",
-                loan.getBook().getIsbn(), loan.getCustomer());
+                loan.getBookIsbn(), loan.getCustomer());
 
         MockHttpServletRequestBuilder request = MockMvcRequestBuilders
                 .get(LOAN_API.concat(queryString))
@@ -190,12 +247,74 @@ public class LoanControllerTest {
         mvc.perform(request)
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("content", hasSize(1)))
+                .andExpect(jsonPath("content[0].book.isbn").value("321"))
                 .andExpect(jsonPath("totalElements").value(1))
                 .andExpect(jsonPath("pageable.pageSize").value(100))
                 .andExpect(jsonPath("pageable.pageNumber").value(0));
 
     }
 
+    @Test
+    @DisplayName("Must filter loans using a cursor")
+    public void findLoansAfterCursorTest() throws Exception {
+        LoanDetails loan = LoanDetails.builder().id(1L).customer("Edson").loanDate(LocalDate.now()).bookId(1L).bookIsbn("321").build();
+
+        BDDMockito.given(loanService.findAfter(Mockito.any(LoanFilterDTO.class), Mockito.isNull(), Mockito.eq(101)))
+                .willReturn(Arrays.asList(loan));
+
+        String queryString = String.format("?isbn=%s&customer=%s&after=&size=100",
+                loan.getBookIsbn(), loan.getCustomer());
+
+        mvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat(queryString)).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(1)))
+                .andExpect(jsonPath("content[0].isbn").value("321"))
+                .andExpect(jsonPath("next").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Must return bad request when a sort is sent with the cursor")
+    public void findLoansCursorWithSortTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("?customer=Edson&after=&sort=loanDate")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Sort is not supported with a cursor"));
+
+        Mockito.verify(loanService, Mockito.never()).findAfter(Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Must stream the loan export as CSV when the client accepts text/csv")
+    public void exportCsvTest() throws Exception {
+        BDDMockito.given(exportService.export(Mockito.any(LoanExportFilterDTO.class), Mockito.eq(LoanExportService.Format.CSV), Mockito.any(Writer.class)))
+                .willAnswer(invocation -> {
+                    Writer writer = invocation.getArgument(2);
+                    writer.write("id,customer\n1,Edson\n");
+                    return 1L;
+                });
+
+        mvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("/export?from=2020-01-01&to=2020-01-31&isbn=123"))
+                .accept("text/csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,customer\n1,Edson\n"));
+
+        ArgumentCaptor<LoanExportFilterDTO> filter = ArgumentCaptor.forClass(LoanExportFilterDTO.class);
+        Mockito.verify(exportService).export(filter.capture(), Mockito.eq(LoanExportService.Format.CSV), Mockito.any(Writer.class));
+        assertThat(filter.getValue().getFrom()).isEqualTo(LocalDate.of(2020, 1, 1));
+        assertThat(filter.getValue().getTo()).isEqualTo(LocalDate.of(2020, 1, 31));
+        assertThat(filter.getValue().getIsbn()).isEqualTo("123");
+    }
+
+    @Test
+    @DisplayName("Must stream the loan export as NDJSON by default")
+    public void exportNdjsonTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("/export")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"));
+
+        Mockito.verify(exportService).export(Mockito.any(LoanExportFilterDTO.class), Mockito.eq(LoanExportService.Format.NDJSON), Mockito.any(Writer.class));
+    }
+
     public Loan createLoan() {
         Book book = Book.builder().id(1L).build();
         return Loan.builder()
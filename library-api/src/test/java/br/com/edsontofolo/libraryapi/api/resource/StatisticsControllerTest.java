@@ -0,0 +1,52 @@
+package br.com.edsontofolo.libraryapi.api.resource;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanStatisticsDTO;
+import br.com.edsontofolo.libraryapi.service.LoanStatisticsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = {StatisticsController.class})
+@AutoConfigureMockMvc
+public class StatisticsControllerTest {
+    static final String STATS_API = "/api/stats";
+
+    @Autowired
+    MockMvc mvc;
+    @MockBean
+    private LoanStatisticsService statisticsService;
+
+    @Test
+    @DisplayName("Must return the loan counters of all loans, of a book and of a customer")
+    public void loansStatisticsTest() throws Exception {
+        BDDMockito.given(statisticsService.global()).willReturn(new LoanStatisticsDTO(10, 4, 1));
+        BDDMockito.given(statisticsService.byBook(1L)).willReturn(new LoanStatisticsDTO(3, 1, 0));
+        BDDMockito.given(statisticsService.byCustomer("Edson")).willReturn(new LoanStatisticsDTO(2, 2, 1));
+
+        mvc.perform(MockMvcRequestBuilders.get(STATS_API.concat("/loans")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("total").value(10))
+                .andExpect(jsonPath("active").value(4))
+                .andExpect(jsonPath("overdue").value(1));
+        mvc.perform(MockMvcRequestBuilders.get(STATS_API.concat("/books/1/loans")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("total").value(3));
+        mvc.perform(MockMvcRequestBuilders.get(STATS_API.concat("/customers/Edson/loans")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("overdue").value(1));
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import springfox.documentation.spring.web.plugins.Docket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({"test", "fast-start"})
+@SpringBootTest
+public class FastStartConfigTest {
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Test
+    @DisplayName("Must create only the eager beans on startup with the fast-start profile")
+    public void lazyInitializationTest() {
+        assertThat(context.getBeanFactory().containsSingleton("scheduleService")).isTrue();
+        assertThat(context.getBeanFactory().containsSingleton("loanArchiveServiceImpl")).isTrue();
+        assertThat(context.getBeanFactory().containsSingleton("loanStatisticsEventListener")).isTrue();
+
+        assertThat(context.getBeanFactory().containsSingleton("bookController")).isFalse();
+        assertThat(context.getBean("bookController")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Must not scan the handlers for Swagger with the fast-start profile")
+    public void swaggerDisabledTest() {
+        assertThat(context.getBeanNamesForType(Docket.class)).isEmpty();
+    }
+}
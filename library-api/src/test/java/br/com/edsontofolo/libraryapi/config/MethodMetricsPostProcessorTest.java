@@ -0,0 +1,86 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class MethodMetricsPostProcessorTest {
+
+    private MeterRegistry registry;
+    private MethodMetricsPostProcessor postProcessor;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", registry);
+        postProcessor = new MethodMetricsPostProcessor(beanFactory.getBeanProvider(MeterRegistry.class))
+                .time(BookService.class, MetricsConfig.SERVICE_TIMER)
+                .time(LoanRepository.class, MetricsConfig.REPOSITORY_TIMER);
+    }
+
+    @Test
+    @DisplayName("Must time service methods tagged by class, method and outcome")
+    public void serviceTimerTest() {
+        BookService target = Mockito.mock(BookService.class);
+        when(target.getById(2L)).thenThrow(new IllegalStateException());
+        BookService service = (BookService) postProcessor.postProcessAfterInitialization(target, "bookService");
+
+        service.getById(1L);
+        service.getById(1L);
+        catchThrowable(() -> service.getById(2L));
+
+        assertThat(timer(MetricsConfig.SERVICE_TIMER, "BookService", "getById", "success").count()).isEqualTo(2);
+        assertThat(timer(MetricsConfig.SERVICE_TIMER, "BookService", "getById", "error").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must time the queries of a repository that is already a proxy, including the inherited ones")
+    public void repositoryTimerTest() {
+        ProxyFactory proxyFactory = new ProxyFactory(Mockito.mock(LoanRepository.class));
+        proxyFactory.addInterface(LoanRepository.class);
+        Object springDataProxy = proxyFactory.getProxy();
+
+        LoanRepository repository = (LoanRepository) postProcessor.postProcessAfterInitialization(springDataProxy, "loanRepository");
+        repository.findLoanedBookIds();
+        repository.save(Loan.builder().build());
+
+        assertThat(repository).isSameAs(springDataProxy);
+        assertThat(timer(MetricsConfig.REPOSITORY_TIMER, "LoanRepository", "findLoanedBookIds", "success").count()).isEqualTo(1);
+        assertThat(timer(MetricsConfig.REPOSITORY_TIMER, "LoanRepository", "save", "success").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must leave other beans untouched")
+    public void untimedBeanTest() {
+        Object bean = new Object();
+
+        assertThat(postProcessor.postProcessAfterInitialization(bean, "other")).isSameAs(bean);
+    }
+
+    private Timer timer(String name, String type, String method, String outcome) {
+        return registry.get(name)
+                .tag("class", type)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,162 @@
+package br.com.edsontofolo.libraryapi.config;
+
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.service.BookService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dois H2 em memória: o primário e uma "réplica" com o mesmo esquema, mas sem replicação,
+ * então cada leitura mostra de qual banco veio
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "application.datasource.replicas[0].name=replica",
+        "application.datasource.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "application.datasource.replicas[0].username=sa",
+        "application.datasource.read-your-writes=300ms"
+})
+public class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    BookService bookService;
+    @Autowired
+    ReadReplicaConfig.DataSourcePools pools;
+    @Autowired
+    BookRepository bookRepository;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    /**
+     * Antes do contexto: a inicialização da aplicação já lê da réplica
+     */
+    @BeforeAll
+    public static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        primary = new JdbcTemplate(pools.getPrimary());
+        replica = new JdbcTemplate(pools.getReplicas().get("replica"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Must send read only queries to the replica")
+    public void readFromReplicaTest() {
+        replica.update("insert into book (id, title, author, isbn, version, last_modified) "
+                + "values (1000, 'Replica', 'Someone', 'replica-1', 0, current_timestamp)");
+
+        assertThat(bookService.find(Book.builder().isbn("replica-1").build(), PageRequest.of(0, 10)).getContent())
+                .extracting(Book::getTitle).containsExactly("Replica");
+    }
+
+    @Test
+    @DisplayName("Must write to the primary and read the own writes from it for a while, in any thread")
+    public void readYourWritesTest() throws Exception {
+        MockHttpServletResponse written = request();
+        bookService.save(Book.builder().title("Primary").author("Someone").isbn("primary-1").build());
+
+        assertThat(primary.queryForObject("select count(*) from book where isbn = 'primary-1'", Integer.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from book where isbn = 'primary-1'", Integer.class)).isZero();
+        assertThat(bookService.find(Book.builder().isbn("primary-1").build(), PageRequest.of(0, 10))).hasSize(1);
+
+        Cookie cookie = written.getCookie(ReplicaRoutingDataSource.READ_YOUR_WRITES_COOKIE);
+        assertThat(cookie).isNotNull();
+        assertThat(findInOtherThread("primary-1", cookie)).isEqualTo(1);
+
+        // a mesma thread, em outra requisição sem o cookie, volta para a réplica
+        request();
+        assertThat(bookService.find(Book.builder().isbn("primary-1").build(), PageRequest.of(0, 10))).isEmpty();
+
+        Thread.sleep(400);
+        assertThat(findInOtherThread("primary-1", cookie)).isZero();
+    }
+
+    @Test
+    @DisplayName("Must keep the repository reads of the write paths on the primary")
+    public void writePathReadsFromPrimaryTest() {
+        replica.update("insert into book (id, title, author, isbn, version, last_modified) "
+                + "values (3000, 'Replica', 'Someone', 'replica-only', 0, current_timestamp)");
+        primary.update("insert into book (id, title, author, isbn, version, last_modified) "
+                + "values (3001, 'Primary', 'Someone', 'primary-only', 0, current_timestamp)");
+
+        assertThat(bookRepository.existsByIsbn("replica-only")).isFalse();
+        assertThat(bookRepository.existsByIsbn("primary-only")).isTrue();
+        assertThat(bookService.getByIsbn("primary-only")).isPresent();
+        assertThat(bookService.find(Book.builder().isbn("replica-only").build(), PageRequest.of(0, 10))).hasSize(1);
+    }
+
+    @Test
+    @DirtiesContext
+    @DisplayName("Must read from the primary when the replica can not give a connection")
+    public void replicaDownTest() {
+        primary.update("insert into book (id, title, author, isbn, version, last_modified) "
+                + "values (2000, 'Fallback', 'Someone', 'fallback-1', 0, current_timestamp)");
+        pools.getReplicas().get("replica").close();
+
+        assertThat(bookService.find(Book.builder().isbn("fallback-1").build(), PageRequest.of(0, 10))).hasSize(1);
+    }
+
+    /**
+     * Uma requisição nova nesta thread, com os cookies informados
+     */
+    private MockHttpServletResponse request(Cookie... cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (cookies.length > 0) {
+            request.setCookies(cookies);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    private long findInOtherThread(String isbn, Cookie cookie) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(() -> {
+                request(cookie);
+                try {
+                    return bookService.find(Book.builder().isbn(isbn).build(), PageRequest.of(0, 10)).getTotalElements();
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            }).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
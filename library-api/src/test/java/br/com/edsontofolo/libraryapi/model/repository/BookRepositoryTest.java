@@ -5,11 +5,14 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -90,6 +93,36 @@ public class BookRepositoryTest {
         assertThat(deletedBook).isNull();
     }
 
+    @Test
+    @DisplayName("Must find books after the last seen id")
+    public void findAfterTest() {
+        Book first = entityManager.persist(createBook("1"));
+        Book second = entityManager.persist(createBook("2"));
+        Book third = entityManager.persist(createBook("3"));
+        entityManager.persist(Book.builder().title("Other").author("Someone").isbn("4").build());
+
+        List<Book> firstPage = repository.findAfter(null, "incredible", null, null, PageRequest.of(0, 2));
+        List<Book> secondPage = repository.findAfter(second.getId(), "incredible", null, null, PageRequest.of(0, 2));
+
+        assertThat(firstPage).containsExactly(first, second);
+        assertThat(secondPage).containsExactly(third);
+    }
+
+    @Test
+    @DisplayName("Must increment the version and the last modified date on update")
+    public void versionTest() {
+        Book book = entityManager.persistFlushFind(createBook("123"));
+        Long version = book.getVersion();
+        Instant lastModified = book.getLastModified();
+
+        book.setTitle("Another title");
+        repository.saveAndFlush(book);
+
+        assertThat(lastModified).isNotNull();
+        assertThat(book.getVersion()).isEqualTo(version + 1);
+        assertThat(book.getLastModified()).isAfterOrEqualTo(lastModified);
+    }
+
     private Book createBook(String isbn) {
         return Book.builder().title("My incredible life").author("Edson").isbn(isbn).build();
     }
@@ -0,0 +1,91 @@
+package br.com.edsontofolo.libraryapi.model.repository;
+
+import br.com.edsontofolo.libraryapi.config.HibernateCacheConfig;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sem a transação do teste: cada chamada ao repositório roda na sua própria transação,
+ * então só o cache de segundo nível pode evitar o select.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookSecondLevelCacheTest {
+
+    @Autowired
+    BookRepository repository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Must read a book from the second level cache in later transactions")
+    public void cacheHitAcrossTransactionsTest() {
+        Book book = repository.save(Book.builder().title("As aventuras").author("Fulano").isbn("123").build());
+        statistics.clear();
+
+        repository.findById(book.getId());
+        repository.findById(book.getId());
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Book.CACHE_REGION);
+        assertThat(region.getHitCount()).isEqualTo(2);
+        assertThat(region.getMissCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Must see the updated book after an update in another transaction")
+    public void cacheUpdatedOnWriteTest() {
+        Book book = repository.save(Book.builder().title("As aventuras").author("Fulano").isbn("123").build());
+        book.setTitle("Outras aventuras");
+        repository.save(book);
+        statistics.clear();
+
+        Book found = repository.findById(book.getId()).get();
+
+        assertThat(found.getTitle()).isEqualTo("Outras aventuras");
+        assertThat(statistics.getDomainDataRegionStatistics(Book.CACHE_REGION).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must not find a deleted book in the cache")
+    public void cacheEvictedOnDeleteTest() {
+        Book book = repository.save(Book.builder().title("As aventuras").author("Fulano").isbn("123").build());
+        repository.delete(book);
+
+        assertThat(repository.findById(book.getId())).isEmpty();
+    }
+}
@@ -0,0 +1,292 @@
+package br.com.edsontofolo.libraryapi.model.repository;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
+import br.com.edsontofolo.libraryapi.exception.BusinessException;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.projection.LateLoan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LoanRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private LoanRepository repository;
+
+    @Test
+    @DisplayName("Must verify if exists loan for book not returned")
+    public void existsByBookAndNotReturned() {
+        //cenário
+        Book book = createBook();
+        entityManager.persist(book);
+
+        Loan loan = Loan.builder().book(book).customer("Edson").loanDate(LocalDate.now()).build();
+        entityManager.persist(loan);
+
+        //execucao
+        boolean exists = repository.existsByBookAndNotReturned(book);
+
+        // verificacao
+        assertThat(exists).isTrue();
+    }
+
+    @Test
+    @DisplayName("Must find loan by isbn book or customer")
+    public void findByFilterIsbnOrCustomerTest() {
+        //cenário
+        Book book = createBook();
+        entityManager.persist(book);
+
+        Loan loan = Loan.builder().book(book).customer("Edson").loanDate(LocalDate.now()).build();
+        entityManager.persist(loan);
+
+        //execucao
+        Page<Loan> result = repository.findByFilter(filter("2509119", "Edson"), PageRequest.of(0, 10));
+
+        // verificacao
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent()).contains(loan);
+        assertThat(result.getPageable().getPageSize()).isEqualTo(10);
+        assertThat(result.getPageable().getPageNumber()).isEqualTo(0);
+        assertThat(result.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must get loans late")
+    public void findByLoansLate() {
+        Book book = createBook();
+        entityManager.persist(book);
+
+        Loan loan = Loan.builder().book(book).customer("Edson").loanDate(LocalDate.now().minusDays(5)).build();
+        entityManager.persist(loan);
+
+        List<Loan> result = repository.findByLoansDateLessThanAndNotResturned(LocalDate.now().minusDays(4));
+
+        assertThat(result).hasSize(1).contains(loan);
+    }
+
+    @Test
+    @DisplayName("Must not find loans late")
+    public void notFindByLoansLate() {
+        Book book = createBook();
+        entityManager.persist(book);
+
+        Loan loan = Loan.builder().book(book).customer("Edson").loanDate(LocalDate.now()).build();
+        entityManager.persist(loan);
+
+        List<Loan> result = repository.findByLoansDateLessThanAndNotResturned(LocalDate.now().minusDays(4));
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Must find loans by isbn or customer after the last seen id")
+    public void findByFilterAfterTest() {
+        Book book = createBook();
+        entityManager.persist(book);
+
+        Loan first = entityManager.persist(Loan.builder().book(book).customer("Edson").loanDate(LocalDate.now()).build());
+        Loan second = entityManager.persist(Loan.builder().book(book).customer("Edson").loanDate(LocalDate.now()).build());
+
+        List<LoanDetails> firstPage = repository.findDetailsByFilterAfter(filter("2509119", "Edson"), null, 1);
+        List<LoanDetails> secondPage = repository.findDetailsByFilterAfter(filter("2509119", "Edson"), first.getId(), 1);
+        List<LoanDetails> byBook = repository.findDetailsByFilterAfter(LoanFilterDTO.builder().bookId(book.getId()).build(),
+                first.getId(), 10);
+
+        assertThat(firstPage).extracting(LoanDetails::getId).containsExactly(first.getId());
+        assertThat(secondPage).extracting(LoanDetails::getId).containsExactly(second.getId());
+        assertThat(byBook).extracting(LoanDetails::getId).containsExactly(second.getId());
+    }
+
+    @Test
+    @DisplayName("Must load a page of loans with their books without a select per book")
+    public void findByFilterStatementsTest() {
+        persistLoansOfDistinctBooks("Edson", 5);
+
+        Statistics statistics = statistics();
+        Page<Loan> result = repository.findByFilter(filter(null, "Edson"), PageRequest.of(0, 100));
+        result.getContent().forEach(loan -> loan.getBook().getTitle());
+
+        // ids da página e depois os empréstimos com os livros
+        assertThat(result.getContent()).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Must load a page of loans of a book in a single statement")
+    public void findByBookSingleStatementTest() {
+        Book book = persistLoansOfDistinctBooks("Edson", 1).get(0);
+
+        Statistics statistics = statistics();
+        Page<Loan> result = repository.findByBook(book, PageRequest.of(0, 100));
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must load each page of loan details projections in a single statement")
+    public void findDetailsSingleStatementTest() {
+        List<Book> books = persistLoansOfDistinctBooks("Edson", 5);
+
+        Statistics statistics = statistics();
+        Page<LoanDetails> result = repository.findDetailsByFilter(filter(null, "Edson"), PageRequest.of(0, 100));
+        Page<LoanDetails> byBook = repository.findDetailsByFilter(LoanFilterDTO.builder().bookId(books.get(0).getId()).build(),
+                PageRequest.of(0, 100));
+
+        assertThat(result.getContent()).hasSize(5);
+        assertThat(result.getContent()).extracting(LoanDetails::getBookIsbn).containsOnlyElementsOf(
+                books.stream().map(Book::getIsbn).collect(Collectors.toList()));
+        assertThat(byBook.getContent()).hasSize(1);
+        assertThat(byBook.getContent().get(0).getBookId()).isEqualTo(books.get(0).getId());
+        // um select por página; sem count, porque nenhuma página veio cheia
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Must issue the count query only when the page is full")
+    public void findDetailsCountQueryTest() {
+        persistLoansOfDistinctBooks("Edson", 3);
+
+        Statistics statistics = statistics();
+        Page<LoanDetails> result = repository.findDetailsByFilter(filter(null, "Edson"), PageRequest.of(0, 2));
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Must get the ids of the books with an open loan")
+    public void findLoanedBookIdsTest() {
+        Book loaned = entityManager.persist(Book.builder().title("Loaned").author("Edson").isbn("isbn-loaned").build());
+        Book returned = entityManager.persist(Book.builder().title("Returned").author("Edson").isbn("isbn-returned").build());
+        entityManager.persist(Loan.builder().book(loaned).customer("Edson").loanDate(LocalDate.now()).build());
+        entityManager.persist(Loan.builder().book(loaned).customer("Edson").loanDate(LocalDate.now()).returned(true).build());
+        entityManager.persist(Loan.builder().book(returned).customer("Edson").loanDate(LocalDate.now()).returned(true).build());
+
+        List<Long> bookIds = repository.findLoanedBookIds();
+
+        assertThat(bookIds).containsExactly(loaned.getId());
+    }
+
+    @Test
+    @DisplayName("Must get late loans in id order, starting after the given id")
+    public void findLateLoansAfterTest() {
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Book book = entityManager.persist(Book.builder().title("Book " + i).author("Edson").isbn("isbn-" + i).build());
+            loans.add(entityManager.persist(Loan.builder().book(book).customer("Edson").customerEmail("customer" + i + "@email.com")
+                    .loanDate(LocalDate.now().minusDays(5)).build()));
+        }
+        Book onTime = entityManager.persist(Book.builder().title("On time").author("Edson").isbn("isbn-on-time").build());
+        entityManager.persist(Loan.builder().book(onTime).customer("Edson").loanDate(LocalDate.now()).build());
+
+        List<LateLoan> first = repository.findLateLoansAfter(LocalDate.now().minusDays(4), null, PageRequest.of(0, 2));
+        List<LateLoan> second = repository.findLateLoansAfter(LocalDate.now().minusDays(4), first.get(1).getId(), PageRequest.of(0, 2));
+
+        assertThat(first).extracting(LateLoan::getId).containsExactly(loans.get(0).getId(), loans.get(1).getId());
+        assertThat(first.get(0).getCustomerEmail()).isEqualTo("customer0@email.com");
+        assertThat(second).extracting(LateLoan::getId).containsExactly(loans.get(2).getId());
+    }
+
+    /**
+     * Persiste um empréstimo por livro e limpa o contexto, para que os livros não venham do cache de primeiro nível
+     */
+    private List<Book> persistLoansOfDistinctBooks(String customer, int count) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = entityManager.persist(Book.builder().title("Book " + i).author("Edson").isbn("isbn-" + i).build());
+            entityManager.persist(Loan.builder().book(book).customer(customer).loanDate(LocalDate.now()).build());
+            books.add(book);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return books;
+    }
+
+    @Test
+    @DisplayName("Must combine only the informed filters, with isbn or customer")
+    public void findByFilterTest() {
+        Book book = entityManager.persist(createBook());
+        Book other = entityManager.persist(Book.builder().title("Other").author("Someone").isbn("999").build());
+        Loan byIsbn = entityManager.persist(Loan.builder().book(book).customer("Maria").loanDate(LocalDate.of(2020, 1, 10)).returned(true).build());
+        Loan byCustomer = entityManager.persist(Loan.builder().book(other).customer("Edson").loanDate(LocalDate.of(2020, 1, 20)).build());
+        Loan both = entityManager.persist(Loan.builder().book(book).customer("Edson").loanDate(LocalDate.of(2020, 2, 10)).returned(false).build());
+        Loan none = entityManager.persist(Loan.builder().book(other).customer("Maria").loanDate(LocalDate.of(2020, 1, 15)).build());
+
+        assertThat(repository.findByFilter(filter("2509119", "Edson"), PageRequest.of(0, 10)).getContent())
+                .containsExactly(byIsbn, byCustomer, both);
+        assertThat(repository.findByFilter(LoanFilterDTO.builder().isbn("2509119").customer("Edson").returned(false).build(),
+                PageRequest.of(0, 10)).getContent()).containsExactly(byCustomer, both);
+        assertThat(repository.findByFilter(LoanFilterDTO.builder().from(LocalDate.of(2020, 1, 11)).to(LocalDate.of(2020, 1, 31)).build(),
+                PageRequest.of(0, 10)).getContent()).containsExactly(byCustomer, none);
+        assertThat(repository.findByFilter(LoanFilterDTO.builder().bookId(other.getId()).customer("Maria").build(),
+                PageRequest.of(0, 10)).getContent()).containsExactly(none);
+        assertThat(repository.findByFilter(new LoanFilterDTO(), PageRequest.of(1, 3)).getContent()).containsExactly(none);
+        assertThat(repository.findByFilter(filter("2509119", "Edson"), PageRequest.of(0, 2)).getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Must apply the requested sort with the id as tie-breaker and refuse unsupported properties")
+    public void findByFilterSortTest() {
+        Book book = entityManager.persist(createBook());
+        Book other = entityManager.persist(Book.builder().title("Other").author("Someone").isbn("999").build());
+        Loan byIsbn = entityManager.persist(Loan.builder().book(book).customer("Maria").loanDate(LocalDate.of(2020, 1, 10)).build());
+        Loan byCustomer = entityManager.persist(Loan.builder().book(other).customer("Edson").loanDate(LocalDate.of(2020, 1, 20)).build());
+        Loan both = entityManager.persist(Loan.builder().book(book).customer("Edson").loanDate(LocalDate.of(2020, 2, 10)).build());
+        Loan none = entityManager.persist(Loan.builder().book(other).customer("Maria").loanDate(LocalDate.of(2020, 1, 20)).build());
+
+        assertThat(repository.findByFilter(filter("2509119", "Edson"), PageRequest.of(0, 10, Sort.by(Sort.Order.desc("loanDate"))))
+                .getContent()).containsExactly(both, byCustomer, byIsbn);
+        assertThat(repository.findByFilter(new LoanFilterDTO(), PageRequest.of(0, 10, Sort.by("customer")))
+                .getContent()).containsExactly(byCustomer, both, byIsbn, none);
+        assertThat(repository.findByFilter(new LoanFilterDTO(), PageRequest.of(1, 2, Sort.by(Sort.Order.desc("loanDate"))))
+                .getContent()).containsExactly(none, byIsbn);
+        assertThat(repository.findDetailsByFilter(new LoanFilterDTO(), PageRequest.of(0, 10, Sort.by(Sort.Order.desc("id"))))
+                .getContent()).extracting(LoanDetails::getId)
+                .containsExactly(none.getId(), both.getId(), byCustomer.getId(), byIsbn.getId());
+
+        Throwable exception = catchThrowable(() -> repository.findByFilter(new LoanFilterDTO(), PageRequest.of(0, 10, Sort.by("book"))));
+
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Unsupported sort property: book");
+    }
+
+    private LoanFilterDTO filter(String isbn, String customer) {
+        return LoanFilterDTO.builder().isbn(isbn).customer(customer).build();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private Book createBook() {
+        return Book.builder().title("My incredible life").author("Edson").isbn("2509119").build();
+    }
+}
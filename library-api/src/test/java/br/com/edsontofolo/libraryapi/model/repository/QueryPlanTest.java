@@ -0,0 +1,336 @@
+package br.com.edsontofolo.libraryapi.model.repository;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import br.com.edsontofolo.libraryapi.model.projection.LoanGroup;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roda EXPLAIN no H2 para o SQL gerado por cada consulta dos repositórios e falha se alguma
+ * tabela for lida por inteiro (tableScan) sem estar na lista de varreduras aceitas da consulta.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "br.com.edsontofolo.libraryapi.model.repository.QueryPlanTest$CapturedSql")
+public class QueryPlanTest {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan");
+
+    @Autowired
+    TestEntityManager entityManager;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    LoanRepository loanRepository;
+
+    private Book book;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < 200; i++) {
+            Book saved = entityManager.persist(Book.builder().title("Book " + i).author("Author " + i % 10).isbn("isbn-" + i).build());
+            entityManager.persist(Loan.builder().book(saved).customer("customer-" + i % 50)
+                    .loanDate(LocalDate.now().minusDays(i % 30)).returned(i % 3 == 0).build());
+            if (i == 0) {
+                book = saved;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        CapturedSql.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("existsByIsbn must use the isbn index")
+    public void existsByIsbnPlanTest() {
+        assertNoTableScan(() -> bookRepository.existsByIsbn("isbn-1"));
+    }
+
+    @Test
+    @DisplayName("findByIsbn must use the isbn index")
+    public void findByIsbnPlanTest() {
+        assertNoTableScan(() -> bookRepository.findByIsbn("isbn-1"));
+    }
+
+    @Test
+    @DisplayName("findByIsbnIn must use the isbn index")
+    public void findByIsbnInPlanTest() {
+        assertNoTableScan(() -> bookRepository.findByIsbnIn(Arrays.asList("isbn-1", "isbn-2")));
+    }
+
+    @Test
+    @DisplayName("findIsbnsIn must use the isbn index")
+    public void findIsbnsInPlanTest() {
+        assertNoTableScan(() -> bookRepository.findIsbnsIn(Arrays.asList("isbn-1", "isbn-2")));
+    }
+
+    @Test
+    @DisplayName("findAfter must walk the book primary key")
+    public void findAfterPlanTest() {
+        assertNoTableScan(() -> bookRepository.findAfter(10L, "Book", null, null, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("existsByBookAndNotReturned must use the loan book index")
+    public void existsByBookAndNotReturnedPlanTest() {
+        assertNoTableScan(() -> loanRepository.existsByBookAndNotReturned(book));
+    }
+
+    @Test
+    @DisplayName("findLoanedBookIds must read the loan book index")
+    public void findLoanedBookIdsPlanTest() {
+        assertNoTableScan(() -> loanRepository.findLoanedBookIds());
+    }
+
+    @Test
+    @DisplayName("findByFilter with isbn or customer must use the isbn and customer indexes")
+    public void findByFilterIsbnOrCustomerPlanTest() {
+        assertNoTableScan(() -> loanRepository.findByFilter(LoanFilterDTO.builder().isbn("isbn-1").customer("customer-1").build(),
+                PageRequest.of(0, 1)));
+    }
+
+    @Test
+    @DisplayName("findDetailsByFilter with isbn or customer must use the isbn and customer indexes")
+    public void findDetailsByFilterIsbnOrCustomerPlanTest() {
+        assertNoTableScan(() -> loanRepository.findDetailsByFilter(LoanFilterDTO.builder().isbn("isbn-1").customer("customer-1").build(),
+                PageRequest.of(0, 1)));
+    }
+
+    @Test
+    @DisplayName("findByFilter by customer, dates and situation must use the customer index")
+    public void findByFilterCustomerPlanTest() {
+        assertNoTableScan(() -> loanRepository.findByFilter(LoanFilterDTO.builder().customer("customer-1")
+                .from(LocalDate.now().minusDays(10)).to(LocalDate.now()).returned(false).build(), PageRequest.of(0, 1)));
+    }
+
+    @Test
+    @DisplayName("findByFilter by book and situation must use the loan book index")
+    public void findByFilterBookPlanTest() {
+        assertNoTableScan(() -> loanRepository.findByFilter(LoanFilterDTO.builder().bookId(book.getId()).returned(true).build(),
+                PageRequest.of(0, 1)));
+    }
+
+    @Test
+    @DisplayName("findByFilter by dates must use the loan date index")
+    public void findByFilterDatesPlanTest() {
+        assertNoTableScan(() -> loanRepository.findByFilter(LoanFilterDTO.builder()
+                .from(LocalDate.now().minusDays(10)).to(LocalDate.now()).build(), PageRequest.of(0, 1)));
+    }
+
+    @Test
+    @DisplayName("findByBook must use the loan book index")
+    public void findByBookPlanTest() {
+        assertNoTableScan(() -> loanRepository.findByBook(book, PageRequest.of(0, 1)));
+    }
+
+    @Test
+    @DisplayName("findDetailsByFilter by book must use the loan and archive book indexes")
+    public void findDetailsByFilterBookPlanTest() {
+        assertNoTableScan(() -> loanRepository.findDetailsByFilter(LoanFilterDTO.builder().bookId(book.getId()).build(),
+                PageRequest.of(0, 1)));
+    }
+
+    @Test
+    @DisplayName("findDetailsByFilter with isbn or customer must also use the archive indexes")
+    public void findDetailsByFilterWithArchivePlanTest() {
+        archiveReturnedLoans();
+        assertNoTableScan(() -> loanRepository.findDetailsByFilter(LoanFilterDTO.builder().isbn("isbn-0").customer("customer-1").build(),
+                PageRequest.of(0, 100)));
+    }
+
+    @Test
+    @DisplayName("findDetailsByFilterAfter with isbn or customer must use the isbn and customer indexes")
+    public void findDetailsByFilterAfterPlanTest() {
+        assertNoTableScan(() -> loanRepository.findDetailsByFilterAfter(LoanFilterDTO.builder().isbn("isbn-1").customer("customer-1").build(), 10L, 1));
+    }
+
+    @Test
+    @DisplayName("findDetailsByFilterAfter by book must use the loan and archive book indexes")
+    public void findDetailsByFilterAfterBookPlanTest() {
+        assertNoTableScan(() -> loanRepository.findDetailsByFilterAfter(LoanFilterDTO.builder().bookId(book.getId()).build(), 10L, 1));
+    }
+
+    @Test
+    @DisplayName("findByLoansDateLessThanAndNotResturned must use the loan date index")
+    public void findByLoansDateLessThanAndNotResturnedPlanTest() {
+        assertNoTableScan(() -> loanRepository.findByLoansDateLessThanAndNotResturned(LocalDate.now().minusDays(4)));
+    }
+
+    @Test
+    @DisplayName("findLateLoansAfter must use the loan date index")
+    public void findLateLoansAfterPlanTest() {
+        assertNoTableScan(() -> loanRepository.findLateLoansAfter(LocalDate.now().minusDays(4), 10L, PageRequest.of(0, 1)));
+    }
+
+    @Test
+    @DisplayName("findStatesByIdIn must use the loan primary key")
+    public void findStatesByIdInPlanTest() {
+        assertNoTableScan(() -> loanRepository.findStatesByIdIn(Arrays.asList(1L, 2L)));
+    }
+
+    @Test
+    @DisplayName("findOpenStatesByIsbnIn must use the isbn and loan book indexes")
+    public void findOpenStatesByIsbnInPlanTest() {
+        assertNoTableScan(() -> loanRepository.findOpenStatesByIsbnIn(Arrays.asList("isbn-1", "isbn-2")));
+    }
+
+    @Test
+    @DisplayName("markReturned must use the loan primary key")
+    public void markReturnedPlanTest() {
+        assertNoTableScan(() -> loanRepository.markReturned(Arrays.asList(1L, 2L)));
+    }
+
+    @Test
+    @DisplayName("findLoanedBookIdsIn must use the loan book index")
+    public void findLoanedBookIdsInPlanTest() {
+        assertNoTableScan(() -> loanRepository.findLoanedBookIdsIn(Arrays.asList(1L, 2L)));
+    }
+
+    /**
+     * A exportação percorre o histórico inteiro, então ler loan e loan_archive por completo é esperado;
+     * book vem pela chave primária
+     */
+    @Test
+    @DisplayName("streamDetails must only scan loan and loan_archive")
+    public void streamDetailsPlanTest() {
+        assertNoTableScan(() -> {
+            try (Stream<LoanDetails> loans = loanRepository.streamDetails(null, null, "isbn-1")) {
+                loans.count();
+            }
+        }, "LOAN", "LOAN_ARCHIVE");
+    }
+
+    @Test
+    @DisplayName("streamDetails for a recent period must use the loan date index and skip the archive")
+    public void streamRecentDetailsPlanTest() {
+        assertNoTableScan(() -> {
+            try (Stream<LoanDetails> loans = loanRepository.streamDetails(LocalDate.now().minusDays(10), null, null)) {
+                loans.count();
+            }
+        });
+        assertThat(CapturedSql.STATEMENTS).hasSize(1).noneMatch(sql -> sql.contains("loan_archive"));
+    }
+
+    @Test
+    @DisplayName("streamArchivedGroups must only scan loan_archive")
+    public void streamArchivedGroupsPlanTest() {
+        assertNoTableScan(() -> {
+            try (Stream<LoanGroup> groups = loanRepository.streamArchivedGroups()) {
+                groups.count();
+            }
+        }, "LOAN_ARCHIVE");
+    }
+
+    @Test
+    @DisplayName("findArchivableIds must use the loan date index")
+    public void findArchivableIdsPlanTest() {
+        assertNoTableScan(() -> loanRepository.findArchivableIds(LocalDate.now().minusDays(10), PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("copyToArchive and deleteByIdIn must use the loan primary key")
+    public void archiveStatementsPlanTest() {
+        assertNoTableScan(() -> {
+            loanRepository.copyToArchive(Arrays.asList(1L, 2L), Instant.now());
+            loanRepository.deleteByIdIn(Arrays.asList(1L, 2L));
+        });
+        assertThat(CapturedSql.STATEMENTS).hasSize(2);
+    }
+
+    /**
+     * O rebuild das estatísticas agrega todos os empréstimos, então ler loan por completo é esperado
+     */
+    @Test
+    @DisplayName("streamGroups must only scan loan")
+    public void streamGroupsPlanTest() {
+        assertNoTableScan(() -> {
+            try (Stream<LoanGroup> groups = loanRepository.streamGroups()) {
+                groups.count();
+            }
+        }, "LOAN");
+    }
+
+    /**
+     * Move para o arquivo os empréstimos devolvidos, para as consultas lerem as duas tabelas com dados
+     */
+    private void archiveReturnedLoans() {
+        List<Long> ids = loanRepository.findArchivableIds(LocalDate.now().plusDays(1), PageRequest.of(0, 200));
+        loanRepository.copyToArchive(ids, Instant.now());
+        loanRepository.deleteByIdIn(ids);
+        CapturedSql.STATEMENTS.clear();
+    }
+
+    /**
+     * Executa a consulta e confere o plano de cada comando que ela gerou (inclusive o count da página)
+     */
+    private void assertNoTableScan(Runnable query, String... acceptedScans) {
+        query.run();
+
+        assertThat(CapturedSql.STATEMENTS).isNotEmpty();
+        for (String sql : CapturedSql.STATEMENTS) {
+            String plan = explain(sql);
+            List<String> scans = new ArrayList<>();
+            Matcher matcher = TABLE_SCAN.matcher(plan);
+            while (matcher.find()) {
+                scans.add(matcher.group(1));
+            }
+            assertThat(scans).as("Table scan in plan:%n%s", plan).isSubsetOf(acceptedScans);
+        }
+    }
+
+    private String explain(String sql) {
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        });
+    }
+
+    public static class CapturedSql implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            String statement = sql.trim().toLowerCase();
+            if (statement.startsWith("select") || statement.startsWith("update")
+                    || statement.startsWith("insert") || statement.startsWith("delete")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.impl.BookAvailabilityServiceImpl;
+import br.com.edsontofolo.libraryapi.service.impl.LongHashSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookAvailabilityServiceTest {
+
+    private BookAvailabilityService service;
+    @MockBean
+    private LoanRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        this.service = new BookAvailabilityServiceImpl(repository);
+    }
+
+    @Test
+    @DisplayName("Must load the loaned books from the database")
+    public void rebuildTest() {
+        when(repository.findLoanedBookIds()).thenReturn(Arrays.asList(1L, 2L, 130L));
+
+        service.rebuild();
+
+        assertThat(service.isLoaned(1L)).isTrue();
+        assertThat(service.isLoaned(130L)).isTrue();
+        assertThat(service.isLoaned(3L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Must mark books as loaned and returned")
+    public void markTest() {
+        service.markLoaned(10L);
+        assertThat(service.isLoaned(10L)).isTrue();
+
+        service.markReturned(10L);
+        assertThat(service.isLoaned(10L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Must hold the locks of all books while the action runs")
+    public void withLocksTest() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread batch = new Thread(() -> service.withLocks(Arrays.asList(1L, 2L, 130L), () -> {
+            service.markLoaned(1L);
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        batch.start();
+        locked.await();
+
+        AtomicBoolean acquired = new AtomicBoolean();
+        Thread single = new Thread(() -> service.withLock(130L, () -> {
+            acquired.set(true);
+            return null;
+        }));
+        single.start();
+        single.join(200);
+        assertThat(acquired).isFalse();
+
+        release.countDown();
+        batch.join();
+        single.join();
+        assertThat(acquired).isTrue();
+        assertThat(service.isLoaned(1L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Must behave like a HashSet<Long> through adds, removes and resizes")
+    public void longHashSetTest() {
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                assertThat(set.add(key)).isEqualTo(expected.add(key));
+            } else {
+                assertThat(set.remove(key)).isEqualTo(expected.remove(key));
+            }
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertThat(set.contains(key)).isEqualTo(expected.contains(key));
+        }
+    }
+}
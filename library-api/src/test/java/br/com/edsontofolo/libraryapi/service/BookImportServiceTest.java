@@ -0,0 +1,177 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.BookImportResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.BookImportResultDTO.Status;
+import br.com.edsontofolo.libraryapi.config.OutboxProperties;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.model.repository.OutboxEventRepository;
+import br.com.edsontofolo.libraryapi.service.impl.BookImportServiceImpl;
+import br.com.edsontofolo.libraryapi.service.impl.BookServiceImpl;
+import br.com.edsontofolo.libraryapi.service.impl.OutboxServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class BookImportServiceTest {
+
+    @Autowired
+    TestEntityManager testEntityManager;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    BookRepository repository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    OutboxEventRepository outboxRepository;
+
+    BookImportService service;
+    OutboxService outboxService;
+    ConcurrentMapCacheManager cacheManager;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(BookServiceImpl.BOOKS_BY_ISBN_CACHE);
+        outboxService = Mockito.mock(OutboxService.class);
+        service = new BookImportServiceImpl(repository, entityManager, transactionManager, cacheManager,
+                Mockito.mock(BookSearchService.class), outboxService, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+    }
+
+    @Test
+    @DisplayName("Must import NDJSON books reporting created, duplicated and invalid lines")
+    public void importNdjsonTest() throws Exception {
+        testEntityManager.persist(Book.builder().title("Existing").author("Edson").isbn("111").build());
+        String content = "{\"title\":\"First\",\"author\":\"Edson\",\"isbn\":\"222\"}\n" +
+                "{\"title\":\"Existing\",\"author\":\"Edson\",\"isbn\":\"111\"}\n" +
+                "\n" +
+                "{\"title\":\"Same isbn\",\"author\":\"Edson\",\"isbn\":\"222\"}\n" +
+                "{\"title\":\"No author\",\"isbn\":\"333\"}\n" +
+                "{not json\n";
+
+        List<BookImportResultDTO> results = importBooks(content, BookImportService.Format.NDJSON);
+
+        assertThat(results).extracting(BookImportResultDTO::getLine).containsExactly(1L, 2L, 4L, 5L, 6L);
+        assertThat(results).extracting(BookImportResultDTO::getStatus)
+                .containsExactly(Status.CREATED, Status.DUPLICATED, Status.DUPLICATED, Status.INVALID, Status.INVALID);
+        assertThat(results.get(0).getId()).isNotNull();
+        assertThat(results.get(3).getError()).startsWith("author");
+        assertThat(repository.findByIsbn("222")).isPresent();
+        assertThat(repository.count()).isEqualTo(2);
+        Mockito.verify(outboxService).publish(Mockito.eq(OutboxEvent.Type.BOOK_CREATED),
+                Mockito.argThat((Book book) -> book.getIsbn().equals("222")));
+        Mockito.verifyNoMoreInteractions(outboxService);
+    }
+
+    @Test
+    @DisplayName("Must import CSV books with quoted fields")
+    public void importCsvTest() throws Exception {
+        String content = "title,author,isbn\n" +
+                "\"Title, with comma\",Edson,444\n" +
+                "\"Title \"\"quoted\"\"\",Edson,555\n" +
+                "Missing column,666\n";
+
+        List<BookImportResultDTO> results = importBooks(content, BookImportService.Format.CSV);
+
+        assertThat(results).extracting(BookImportResultDTO::getStatus)
+                .containsExactly(Status.CREATED, Status.CREATED, Status.INVALID);
+        assertThat(repository.findByIsbn("444")).map(Book::getTitle).contains("Title, with comma");
+        assertThat(repository.findByIsbn("555")).map(Book::getTitle).contains("Title \"quoted\"");
+    }
+
+    @Test
+    @DisplayName("Must reject CSV without header")
+    public void importCsvWithoutHeaderTest() throws Exception {
+        List<BookImportResultDTO> results = importBooks("Title,Edson,444\n", BookImportService.Format.CSV);
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getStatus()).isEqualTo(Status.INVALID);
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Must evict cached missing isbn of imported books")
+    public void importEvictsCacheTest() throws Exception {
+        cacheManager.getCache(BookServiceImpl.BOOKS_BY_ISBN_CACHE).put("777", Optional.empty());
+
+        importBooks("{\"title\":\"Title\",\"author\":\"Edson\",\"isbn\":\"777\"}", BookImportService.Format.NDJSON);
+
+        assertThat(cacheManager.getCache(BookServiceImpl.BOOKS_BY_ISBN_CACHE).get("777")).isNull();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Must report as duplicated an isbn saved concurrently, keeping the rest of the chunk")
+    public void importConcurrentDuplicateTest() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.execute(status -> repository.save(Book.builder().title("Existing").author("Edson").isbn("111").build()));
+        // o isbn 111 é gravado depois das consultas do import, como num POST /api/books concorrente
+        BookRepository racing = Mockito.mock(BookRepository.class, AdditionalAnswers.delegatesTo(repository));
+        Mockito.doReturn(Collections.emptyList()).when(racing).findIsbnsIn(Mockito.any());
+        Mockito.doReturn(false).when(racing).existsByIsbn(Mockito.anyString());
+        OutboxService outbox = new OutboxServiceImpl(outboxRepository,
+                new StaticListableBeanFactory().getBeanProvider(OutboxEventConsumer.class), new OutboxProperties(),
+                transactionManager, new ObjectMapper(), new SimpleMeterRegistry());
+        service = new BookImportServiceImpl(racing, entityManager, transactionManager, cacheManager,
+                Mockito.mock(BookSearchService.class), outbox, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+
+        try {
+            List<BookImportResultDTO> results = importBooks("{\"title\":\"First\",\"author\":\"Edson\",\"isbn\":\"222\"}\n" +
+                    "{\"title\":\"Existing\",\"author\":\"Edson\",\"isbn\":\"111\"}\n" +
+                    "{\"title\":\"Next chunk\",\"author\":\"Edson\",\"isbn\":\"333\"}\n", BookImportService.Format.NDJSON);
+
+            assertThat(results).extracting(BookImportResultDTO::getStatus)
+                    .containsExactly(Status.CREATED, Status.DUPLICATED, Status.CREATED);
+            assertThat(results.get(0).getId()).isNotNull();
+            assertThat(repository.count()).isEqualTo(3);
+            // os eventos gravados no bloco desfeito somem com ele
+            assertThat(outboxRepository.findAll()).extracting(OutboxEvent::getAggregateId)
+                    .containsExactlyInAnyOrder(results.get(0).getId(), results.get(2).getId());
+        } finally {
+            transaction.execute(status -> {
+                outboxRepository.deleteAll();
+                repository.deleteAll();
+                return null;
+            });
+        }
+    }
+
+    private List<BookImportResultDTO> importBooks(String content, BookImportService.Format format) throws Exception {
+        List<BookImportResultDTO> results = new ArrayList<>();
+        service.importBooks(new StringReader(content), format, results::add);
+        return results;
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.service.impl.BookSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookSearchServiceTest {
+
+    BookSearchService service;
+
+    @MockBean
+    BookRepository repository;
+
+    Map<Long, Book> database = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        this.service = new BookSearchServiceImpl(repository);
+        Mockito.when(repository.findAllById(Mockito.anyIterable())).thenAnswer(invocation -> {
+            List<Book> books = new ArrayList<>();
+            for (Object id : invocation.<Iterable<?>>getArgument(0)) {
+                books.add(database.get(id));
+            }
+            return books;
+        });
+    }
+
+    @Test
+    @DisplayName("Must find books by whole words and word prefixes ignoring case and accents")
+    public void searchByWordsTest() {
+        Book arthur = index(1L, "As Crônicas de Arthur", "Bernard Cornwell", "978-85-01");
+        index(2L, "O Senhor dos Anéis", "Tolkien", "978-85-02");
+
+        assertThat(service.search("cronicas", 10)).containsExactly(arthur);
+        assertThat(service.search("CRON arth", 10)).containsExactly(arthur);
+        assertThat(service.search("cornwell anéis", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Must rank isbn over title over author and whole words over prefixes")
+    public void rankingTest() {
+        Book byAuthor = index(1L, "Some title", "Arthur Conan Doyle", "111");
+        Book byTitle = index(2L, "Arthur and the Invisibles", "Luc Besson", "222");
+        Book byPrefix = index(3L, "Arthurian Legends", "Someone", "333");
+        Book byIsbn = index(4L, "Other", "Other", "978-3-16-148410-0");
+
+        assertThat(service.search("arthur", 10)).containsExactly(byTitle, byAuthor, byPrefix);
+        assertThat(service.search("978 3 16 148410 0", 10)).containsExactly(byIsbn);
+        assertThat(service.search("978-3-16", 10)).containsExactly(byIsbn);
+    }
+
+    @Test
+    @DisplayName("Must reindex updated books and drop removed books")
+    public void updateAndRemoveTest() {
+        Book book = index(1L, "Old title", "Edson", "123");
+
+        book.setTitle("New title");
+        service.index(book);
+        assertThat(service.search("old", 10)).isEmpty();
+        assertThat(service.search("new", 10)).containsExactly(book);
+
+        service.remove(book);
+        assertThat(service.search("new", 10)).isEmpty();
+        assertThat(service.search("edson", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Must rebuild the index from the database")
+    public void rebuildTest() {
+        Book first = Book.builder().id(1L).title("First").author("Edson").isbn("1").build();
+        Book second = Book.builder().id(2L).title("Second").author("Edson").isbn("2").build();
+        database.put(1L, first);
+        database.put(2L, second);
+        Mockito.when(repository.findAfter(Mockito.isNull(), Mockito.isNull(), Mockito.isNull(), Mockito.isNull(), Mockito.any(Pageable.class)))
+                .thenReturn(Arrays.asList(first, second));
+
+        service.rebuild();
+
+        assertThat(service.search("edson", 10)).containsExactly(first, second);
+        assertThat(service.search("edson", 1)).containsExactly(first);
+    }
+
+    private Book index(Long id, String title, String author, String isbn) {
+        Book book = Book.builder().id(id).title(title).author(author).isbn(isbn).build();
+        database.put(id, book);
+        service.index(book);
+        return book;
+    }
+}
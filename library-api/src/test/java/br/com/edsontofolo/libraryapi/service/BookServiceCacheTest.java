@@ -0,0 +1,143 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.service.impl.BookServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@ContextConfiguration(classes = BookServiceCacheTest.CacheConfig.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // cada teste começa com o cache vazio
+public class BookServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    static class CacheConfig {
+        @Bean
+        public CacheManager cacheManager() {
+            return new CaffeineCacheManager(BookServiceImpl.BOOKS_CACHE, BookServiceImpl.BOOKS_BY_ISBN_CACHE);
+        }
+
+        @Bean
+        public BookService bookService(BookRepository repository, BookSearchService searchService,
+                                       OutboxService outboxService, PlatformTransactionManager transactionManager) {
+            return new BookServiceImpl(repository, searchService, outboxService, transactionManager);
+        }
+    }
+
+    @Autowired
+    BookService service;
+
+    @MockBean
+    BookRepository repository;
+
+    @MockBean
+    BookSearchService searchService;
+
+    @MockBean
+    OutboxService outboxService;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Must hit the database only once when get book by isbn twice")
+    public void getByIsbnCachedTest() {
+        Book book = createBook();
+        when(repository.findByIsbn("123")).thenReturn(Optional.of(book));
+
+        service.getByIsbn("123");
+        Optional<Book> foundBook = service.getByIsbn("123");
+
+        assertThat(foundBook).contains(book);
+        verify(repository, times(1)).findByIsbn("123");
+    }
+
+    @Test
+    @DisplayName("Must hit the database only once when get book by id twice")
+    public void getByIdCachedTest() {
+        Book book = createBook();
+        when(repository.findById(1L)).thenReturn(Optional.of(book));
+
+        service.getById(1L);
+        Optional<Book> foundBook = service.getById(1L);
+
+        assertThat(foundBook).contains(book);
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Must invalidate cache when update book")
+    public void updateEvictsCacheTest() {
+        Book book = createBook();
+        when(repository.findById(1L)).thenReturn(Optional.of(book));
+        when(repository.findByIsbn("123")).thenReturn(Optional.of(book));
+        when(repository.save(book)).thenReturn(book);
+
+        service.getById(1L);
+        service.getByIsbn("123");
+        service.update(book);
+        service.getById(1L);
+        service.getByIsbn("123");
+
+        verify(repository, times(2)).findById(1L);
+        verify(repository, times(2)).findByIsbn("123");
+    }
+
+    @Test
+    @DisplayName("Must invalidate cache when delete book")
+    public void deleteEvictsCacheTest() {
+        Book book = createBook();
+        when(repository.findById(1L)).thenReturn(Optional.of(book)).thenReturn(Optional.empty());
+        when(repository.findByIsbn("123")).thenReturn(Optional.of(book)).thenReturn(Optional.empty());
+
+        service.getById(1L);
+        service.getByIsbn("123");
+        service.delete(book);
+
+        assertThat(service.getById(1L)).isEmpty();
+        assertThat(service.getByIsbn("123")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Must replace a cached missing isbn when save book")
+    public void savePutsCacheTest() {
+        Book book = createBook();
+        when(repository.findByIsbn("123")).thenReturn(Optional.empty());
+        when(repository.existsByIsbn("123")).thenReturn(false);
+        when(repository.save(Mockito.any(Book.class))).thenReturn(book);
+
+        assertThat(service.getByIsbn("123")).isEmpty();
+        service.save(book);
+
+        assertThat(service.getByIsbn("123")).contains(book);
+        assertThat(service.getById(1L)).contains(book);
+        verify(repository, times(1)).findByIsbn("123");
+        verify(repository, never()).findById(1L);
+    }
+
+    private Book createBook() {
+        return Book.builder().id(1L).title("My incredible life").author("Edson").isbn("123").build();
+    }
+}
@@ -2,6 +2,7 @@ package br.com.edsontofolo.libraryapi.service;
 
 import br.com.edsontofolo.libraryapi.exception.BusinessException;
 import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
 import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
 import br.com.edsontofolo.libraryapi.service.impl.BookServiceImpl;
 import org.assertj.core.api.Assertions;
@@ -17,6 +18,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -33,9 +35,18 @@ public class BookServiceTest {
     @MockBean
     BookRepository repository;
 
+    @MockBean
+    BookSearchService searchService;
+
+    @MockBean
+    OutboxService outboxService;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
     @BeforeEach
     public void setUp() {
-        this.service = new BookServiceImpl(repository);
+        this.service = new BookServiceImpl(repository, searchService, outboxService, transactionManager);
     }
 
     @Test
@@ -58,6 +69,9 @@ public class BookServiceTest {
         assertThat(savedBook.getIsbn()).isEqualTo("651651");
         assertThat(savedBook.getTitle()).isEqualTo("Meu Titulo");
         assertThat(savedBook.getAuthor()).isEqualTo("O Autor");
+
+        Mockito.verify(searchService, Mockito.times(1)).index(bookReturn);
+        Mockito.verify(outboxService).publish(OutboxEvent.Type.BOOK_CREATED, bookReturn);
     }
 
         private Book createValidBook() {
@@ -124,6 +138,8 @@ public class BookServiceTest {
         );
 
         Mockito.verify(repository, Mockito.times(1)).delete(book);
+        Mockito.verify(searchService, Mockito.times(1)).remove(book);
+        Mockito.verify(outboxService).publish(OutboxEvent.Type.BOOK_DELETED, book);
     }
 
     @Test
@@ -155,6 +171,8 @@ public class BookServiceTest {
         assertThat(book.getTitle()).isEqualTo(updatedBook.getTitle());
         assertThat(book.getAuthor()).isEqualTo(updatedBook.getAuthor());
         assertThat(book.getIsbn()).isEqualTo(updatedBook.getIsbn());
+
+        Mockito.verify(searchService, Mockito.times(1)).index(updatedBook);
     }
 
     @Test
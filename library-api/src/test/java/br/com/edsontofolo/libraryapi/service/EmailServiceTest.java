@@ -0,0 +1,196 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.config.EmailDispatchProperties;
+import br.com.edsontofolo.libraryapi.service.impl.EmailServiceImpl;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.mail.Message;
+import javax.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class EmailServiceTest {
+
+    private GreenMail greenMail;
+    private MeterRegistry registry;
+    private EmailDispatchProperties properties;
+    private EmailServiceImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        registry = new SimpleMeterRegistry();
+        properties = new EmailDispatchProperties();
+        properties.setInitialBackoff(Duration.ofMillis(10));
+        properties.setRatePerSecond(1000);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (service != null) {
+            service.stop();
+        }
+        greenMail.stop();
+    }
+
+    @Test
+    @DisplayName("Must send one message per recipient, ignoring null and duplicated addresses")
+    public void sendMailsTest() throws Exception {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        mailSender.setDefaultEncoding("UTF-8");
+        service = start(mailSender);
+
+        CompletableFuture<Void> delivery = service.sendMails("late loan", Arrays.asList("a@email.com", null, "b@email.com", " A@email.com", ""));
+
+        delivery.get(5, TimeUnit.SECONDS);
+        assertThat(service.awaitIdle(5000)).isTrue();
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        List<String> recipients = Arrays.stream(received)
+                .map(message -> recipient(message))
+                .collect(Collectors.toList());
+        assertThat(recipients).containsExactlyInAnyOrder("a@email.com", "b@email.com");
+        assertThat(received[0].getSubject()).isEqualTo("Livro com devolução atrasada");
+        assertThat(registry.counter("mail.dispatch.sent").count()).isEqualTo(2);
+        assertThat(registry.counter("mail.dispatch.filtered").count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Must retry a failed send with backoff")
+    public void retryTest() throws Exception {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doThrow(new MailSendException("connection refused"))
+                .doNothing()
+                .when(mailSender).send(any(SimpleMailMessage.class));
+        service = start(mailSender);
+
+        service.sendMails("late loan", Collections.singletonList("a@email.com"));
+
+        assertThat(service.awaitIdle(5000)).isTrue();
+        verify(mailSender, times(2)).send(any(SimpleMailMessage.class));
+        assertThat(service.getDeadLetters()).isEmpty();
+        assertThat(registry.counter("mail.dispatch.retried").count()).isEqualTo(1);
+        assertThat(registry.counter("mail.dispatch.sent").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must keep the worker running and retry when the sender throws an unexpected exception")
+    public void unexpectedExceptionTest() throws Exception {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doThrow(new IllegalStateException("session closed"))
+                .doNothing()
+                .when(mailSender).send(any(SimpleMailMessage.class));
+        properties.setConcurrency(1);
+        service = start(mailSender);
+
+        service.sendMails("late loan", Arrays.asList("a@email.com", "b@email.com"));
+
+        assertThat(service.awaitIdle(5000)).isTrue();
+        verify(mailSender, times(3)).send(any(SimpleMailMessage.class));
+        assertThat(service.getDeadLetters()).isEmpty();
+        assertThat(registry.counter("mail.dispatch.retried").count()).isEqualTo(1);
+        assertThat(registry.counter("mail.dispatch.sent").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Must move the message to the dead letters when the attempts run out")
+    public void deadLetterTest() throws Exception {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doThrow(new MailSendException("connection refused")).when(mailSender).send(any(SimpleMailMessage.class));
+        service = start(mailSender);
+
+        CompletableFuture<Void> delivery = service.sendMails("late loan", Collections.singletonList("a@email.com"));
+
+        delivery.get(5, TimeUnit.SECONDS);
+        assertThat(service.awaitIdle(5000)).isTrue();
+        verify(mailSender, times(properties.getMaxAttempts())).send(any(SimpleMailMessage.class));
+        assertThat(service.getDeadLetters()).hasSize(1);
+        EmailServiceImpl.DeadLetter deadLetter = service.getDeadLetters().get(0);
+        assertThat(deadLetter.getEmail()).isEqualTo("a@email.com");
+        assertThat(deadLetter.getAttempts()).isEqualTo(properties.getMaxAttempts());
+        assertThat(deadLetter.getError()).isEqualTo("connection refused");
+        assertThat(registry.counter("mail.dispatch.dead.lettered").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must move the scheduled retries to the dead letters and fail their delivery on stop")
+    public void stopWithScheduledRetryTest() throws Exception {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doThrow(new MailSendException("connection refused")).when(mailSender).send(any(SimpleMailMessage.class));
+        properties.setInitialBackoff(Duration.ofMinutes(1));
+        properties.setShutdownTimeout(Duration.ofMillis(100));
+        service = start(mailSender);
+
+        CompletableFuture<Void> delivery = service.sendMails("late loan", Collections.singletonList("a@email.com"));
+        verify(mailSender, timeout(5000)).send(any(SimpleMailMessage.class));
+        while (registry.counter("mail.dispatch.retried").count() < 1) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        service.stop();
+
+        assertThat(delivery).isCompletedExceptionally();
+        assertThat(service.awaitIdle(0)).isTrue();
+        assertThat(service.getDeadLetters()).extracting(EmailServiceImpl.DeadLetter::getEmail).containsExactly("a@email.com");
+        assertThat(service.getDeadLetters().get(0).getError()).isEqualTo("Mail dispatch stopped before sending");
+    }
+
+    @Test
+    @DisplayName("Must not exceed the configured send rate")
+    public void rateLimitTest() throws Exception {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        properties.setRatePerSecond(20);
+        properties.setBurst(1);
+        service = start(mailSender);
+
+        long start = System.nanoTime();
+        service.sendMails("late loan", Arrays.asList("a@email.com", "b@email.com", "c@email.com", "d@email.com", "e@email.com"));
+
+        assertThat(service.awaitIdle(5000)).isTrue();
+        // 1 envio imediato + 4 aguardando 50ms cada
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(190));
+        verify(mailSender, times(5)).send(any(SimpleMailMessage.class));
+    }
+
+    private EmailServiceImpl start(JavaMailSender mailSender) {
+        EmailServiceImpl emailService = new EmailServiceImpl(mailSender, properties, registry);
+        ReflectionTestUtils.setField(emailService, "sender", "mail@library-api.com");
+        emailService.start();
+        return emailService;
+    }
+
+    private String recipient(MimeMessage message) {
+        try {
+            return message.getRecipients(Message.RecipientType.TO)[0].toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.entity.LoanArchive;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.impl.LoanArchiveServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = {"application.loans.archive.after-days=30", "application.loans.archive.batch-size=1"})
+@Import(LoanArchiveServiceImpl.class)
+public class LoanArchiveServiceTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+    @Autowired
+    LoanRepository repository;
+    @Autowired
+    LoanArchiveService service;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    EntityManager sharedEntityManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Must move only the old returned loans to the archive, batch by batch")
+    public void archiveTest() {
+        Book book = entityManager.persist(Book.builder().title("My incredible life").author("Edson").isbn("123").build());
+        Loan oldReturned = persist(book, LocalDate.now().minusDays(100), true);
+        Loan otherOldReturned = persist(book, LocalDate.now().minusDays(40), true);
+        Loan oldOpen = persist(book, LocalDate.now().minusDays(100), false);
+        Loan recentReturned = persist(book, LocalDate.now().minusDays(5), true);
+
+        int archived = service.archive();
+
+        assertThat(archived).isEqualTo(2);
+        assertThat(repository.findAll()).extracting(Loan::getId).containsExactlyInAnyOrder(oldOpen.getId(), recentReturned.getId());
+        LoanArchive archive = entityManager.find(LoanArchive.class, oldReturned.getId());
+        assertThat(archive.getCustomer()).isEqualTo("Edson");
+        assertThat(archive.getLoanDate()).isEqualTo(oldReturned.getLoanDate());
+        assertThat(archive.getArchivedAt()).isNotNull();
+        assertThat(entityManager.find(LoanArchive.class, otherOldReturned.getId())).isNotNull();
+        assertThat(service.archive()).isZero();
+    }
+
+    @Test
+    @DisplayName("Must read the archive only when the period reaches it")
+    public void readArchiveTest() {
+        Book book = entityManager.persist(Book.builder().title("My incredible life").author("Edson").isbn("123").build());
+        Loan archived = persist(book, LocalDate.now().minusDays(100), true);
+        Loan live = persist(book, LocalDate.now().minusDays(5), true);
+        service.archive();
+
+        assertThat(repository.findDetailsByFilter(LoanFilterDTO.builder().bookId(book.getId()).build(), PageRequest.of(0, 10)))
+                .extracting(LoanDetails::getId).containsExactly(archived.getId(), live.getId());
+        assertThat(repository.findDetailsByFilter(LoanFilterDTO.builder().customer("Edson").build(), PageRequest.of(1, 1)))
+                .extracting(LoanDetails::getId).containsExactly(live.getId());
+        assertThat(repository.findDetailsByFilter(LoanFilterDTO.builder().bookId(book.getId())
+                .from(LocalDate.now().minusDays(10)).build(), PageRequest.of(0, 10)))
+                .extracting(LoanDetails::getId).containsExactly(live.getId());
+        assertThat(repository.findDetailsByFilter(LoanFilterDTO.builder().bookId(book.getId()).returned(false).build(),
+                PageRequest.of(0, 10))).isEmpty();
+
+        assertThat(repository.findDetailsByFilterAfter(LoanFilterDTO.builder().bookId(book.getId()).build(), null, 1))
+                .extracting(LoanDetails::getId).containsExactly(archived.getId());
+        assertThat(repository.findDetailsByFilterAfter(LoanFilterDTO.builder().customer("Edson").build(), archived.getId(), 10))
+                .extracting(LoanDetails::getId).containsExactly(live.getId());
+        assertThat(repository.findDetailsByFilterAfter(LoanFilterDTO.builder().bookId(book.getId())
+                .from(LocalDate.now().minusDays(10)).build(), null, 10))
+                .extracting(LoanDetails::getId).containsExactly(live.getId());
+
+        assertThat(stream(null, null)).containsExactly(archived.getId(), live.getId());
+        assertThat(stream(LocalDate.now().minusDays(200), LocalDate.now().minusDays(50))).containsExactly(archived.getId());
+        assertThat(stream(LocalDate.now().minusDays(10), null)).containsExactly(live.getId());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Must keep the books in the second-level cache while archiving")
+    public void archiveKeepsBookCacheTest() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Book book = transaction.execute(status ->
+                bookRepository.save(Book.builder().title("My incredible life").author("Edson").isbn("123").build()));
+        transaction.execute(status -> repository.save(
+                Loan.builder().book(book).customer("Edson").loanDate(LocalDate.now().minusDays(100)).returned(true).build()));
+        transaction.execute(status -> bookRepository.findById(book.getId()));
+
+        try {
+            assertThat(entityManagerFactory.getCache().contains(Book.class, book.getId())).isTrue();
+
+            assertThat(service.archive()).isEqualTo(1);
+
+            assertThat(entityManagerFactory.getCache().contains(Book.class, book.getId())).isTrue();
+        } finally {
+            transaction.execute(status -> sharedEntityManager.createNativeQuery("delete from loan_archive").executeUpdate());
+            bookRepository.deleteAll();
+        }
+    }
+
+    private List<Long> stream(LocalDate from, LocalDate to) {
+        try (Stream<LoanDetails> loans = repository.streamDetails(from, to, "123")) {
+            return loans.map(LoanDetails::getId).collect(Collectors.toList());
+        }
+    }
+
+    private Loan persist(Book book, LocalDate loanDate, boolean returned) {
+        return entityManager.persist(Loan.builder().book(book).customer("Edson").loanDate(loanDate).returned(returned).build());
+    }
+}
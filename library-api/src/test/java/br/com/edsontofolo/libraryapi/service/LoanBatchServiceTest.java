@@ -0,0 +1,179 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanBatchResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanBatchResultDTO.Status;
+import br.com.edsontofolo.libraryapi.api.dto.LoanDTO;
+import br.com.edsontofolo.libraryapi.api.dto.LoanReturnResultDTO;
+import br.com.edsontofolo.libraryapi.api.dto.ReturnLoansDTO;
+import br.com.edsontofolo.libraryapi.exception.BusinessException;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+import br.com.edsontofolo.libraryapi.model.projection.LoanState;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.impl.BookAvailabilityServiceImpl;
+import br.com.edsontofolo.libraryapi.service.impl.LoanBatchServiceImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.validation.Validation;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LoanBatchServiceTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    LoanRepository loanRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    BookAvailabilityService availabilityService;
+    LoanStatisticsService statisticsService;
+    OutboxService outboxService;
+    LoanBatchService service;
+
+    @BeforeEach
+    public void setUp() {
+        availabilityService = new BookAvailabilityServiceImpl(loanRepository);
+        statisticsService = Mockito.mock(LoanStatisticsService.class);
+        outboxService = Mockito.mock(OutboxService.class);
+        service = new LoanBatchServiceImpl(bookRepository, loanRepository, availabilityService, statisticsService,
+                outboxService, transactionManager, Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(service, "maxSize", 10);
+    }
+
+    @Test
+    @DisplayName("Must create the available loans and report the refused ones in the request order")
+    public void createAllTest() {
+        Book free = entityManager.persist(createBook("1"));
+        Book other = entityManager.persist(createBook("2"));
+        Book loaned = entityManager.persist(createBook("3"));
+        entityManager.persist(Loan.builder().book(loaned).customer("Maria").loanDate(LocalDate.now()).returned(false).build());
+        availabilityService.rebuild();
+
+        Statistics statistics = statistics();
+        List<LoanBatchResultDTO> results = service.createAll(Arrays.asList(
+                loan("1"),
+                loan("404"),
+                LoanDTO.builder().isbn("2").customer("Edson").build(),
+                loan("3"),
+                loan("1"),
+                loan("2")));
+
+        assertThat(results).extracting(LoanBatchResultDTO::getIndex).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(results).extracting(LoanBatchResultDTO::getStatus).containsExactly(
+                Status.CREATED, Status.BOOK_NOT_FOUND, Status.INVALID, Status.UNAVAILABLE, Status.UNAVAILABLE, Status.CREATED);
+        assertThat(results.get(2).getError()).isEqualTo("email must not be empty");
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+
+        entityManager.flush();
+        entityManager.clear();
+        Loan created = loanRepository.findById(results.get(0).getId()).get();
+        assertThat(created.getBook().getId()).isEqualTo(free.getId());
+        assertThat(created.getReturned()).isFalse();
+        assertThat(loanRepository.findById(results.get(5).getId()).get().getBook().getId()).isEqualTo(other.getId());
+        assertThat(availabilityService.isLoaned(free.getId())).isTrue();
+        assertThat(availabilityService.isLoaned(other.getId())).isTrue();
+        ArgumentCaptor<Loan> published = ArgumentCaptor.forClass(Loan.class);
+        Mockito.verify(outboxService, Mockito.times(2)).publish(Mockito.eq(OutboxEvent.Type.LOAN_CREATED), published.capture());
+        assertThat(published.getAllValues()).extracting(Loan::getId).containsExactly(results.get(0).getId(), results.get(5).getId());
+    }
+
+    @Test
+    @DisplayName("Must refuse a batch larger than the configured maximum")
+    public void createAllTooLargeTest() {
+        Throwable exception = catchThrowable(() -> service.createAll(Collections.nCopies(11, loan("1"))));
+
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Batch must have at most 10 loans");
+    }
+
+    @Test
+    @DisplayName("Must return loans by id and isbn reporting the ones not found or already returned")
+    public void returnAllTest() {
+        Book first = entityManager.persist(createBook("1"));
+        Book second = entityManager.persist(createBook("2"));
+        Book third = entityManager.persist(createBook("3"));
+        entityManager.persist(createBook("4"));
+        Loan open = entityManager.persist(Loan.builder().book(first).customer("Edson").loanDate(LocalDate.now()).returned(false).build());
+        Loan returned = entityManager.persist(Loan.builder().book(second).customer("Edson").loanDate(LocalDate.now()).returned(true).build());
+        Loan byIsbn = entityManager.persist(Loan.builder().book(third).customer("Edson").loanDate(LocalDate.now()).build());
+        availabilityService.rebuild();
+
+        LoanReturnResultDTO result = service.returnAll(ReturnLoansDTO.builder()
+                .ids(Arrays.asList(open.getId(), returned.getId(), 999L, open.getId()))
+                .isbns(Arrays.asList("3", "4"))
+                .build());
+
+        assertThat(result.getReturned()).containsExactly(open.getId(), byIsbn.getId());
+        assertThat(result.getAlreadyReturned()).containsExactly(returned.getId());
+        assertThat(result.getNotFound()).containsExactly(999L);
+        assertThat(result.getNotLoaned()).containsExactly("4");
+        assertThat(loanRepository.findById(open.getId()).get().getReturned()).isTrue();
+        assertThat(loanRepository.findById(byIsbn.getId()).get().getReturned()).isTrue();
+        assertThat(availabilityService.isLoaned(first.getId())).isFalse();
+        assertThat(availabilityService.isLoaned(third.getId())).isFalse();
+        ArgumentCaptor<LoanState> added = ArgumentCaptor.forClass(LoanState.class);
+        Mockito.verify(statisticsService, Mockito.times(2)).removed(Mockito.any(LoanState.class));
+        Mockito.verify(statisticsService, Mockito.times(2)).added(added.capture());
+        assertThat(added.getAllValues()).extracting(LoanState::getReturned).containsOnly(true);
+        ArgumentCaptor<Loan> published = ArgumentCaptor.forClass(Loan.class);
+        Mockito.verify(outboxService, Mockito.times(2)).publish(Mockito.eq(OutboxEvent.Type.LOAN_RETURNED), published.capture());
+        assertThat(published.getAllValues()).extracting(Loan::getId).containsExactlyInAnyOrder(open.getId(), byIsbn.getId());
+        assertThat(published.getAllValues()).extracting(Loan::getReturned).containsOnly(true);
+    }
+
+    @Test
+    @DisplayName("Must keep the book loaned when it still has another open loan")
+    public void returnAllKeepsOtherOpenLoanTest() {
+        Book book = entityManager.persist(createBook("1"));
+        Loan old = entityManager.persist(Loan.builder().book(book).customer("Edson").loanDate(LocalDate.now().minusDays(10)).build());
+        entityManager.persist(Loan.builder().book(book).customer("Maria").loanDate(LocalDate.now()).build());
+        availabilityService.rebuild();
+
+        LoanReturnResultDTO result = service.returnAll(ReturnLoansDTO.builder().ids(Collections.singletonList(old.getId())).build());
+
+        assertThat(result.getReturned()).containsExactly(old.getId());
+        assertThat(availabilityService.isLoaned(book.getId())).isTrue();
+    }
+
+    private LoanDTO loan(String isbn) {
+        return LoanDTO.builder().isbn(isbn).customer("Edson").email("edson@email.com").build();
+    }
+
+    private Book createBook(String isbn) {
+        return Book.builder().title("My incredible life").author("Edson").isbn(isbn).build();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanExportFilterDTO;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.impl.LoanExportServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LoanExportServiceTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+    @Autowired
+    LoanRepository repository;
+
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    LoanExportService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new LoanExportServiceImpl(repository, objectMapper);
+    }
+
+    @Test
+    @DisplayName("Must export the loans as NDJSON, one object per line in id order")
+    public void exportNdjsonTest() throws Exception {
+        Book book = persistBook("123");
+        Loan first = persistLoan(book, "Edson", LocalDate.of(2020, 1, 10));
+        Loan second = persistLoan(book, "Maria", LocalDate.of(2020, 2, 10));
+
+        StringWriter out = new StringWriter();
+        long count = service.export(new LoanExportFilterDTO(), LoanExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString().split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode line = objectMapper.readTree(lines[0]);
+        assertThat(line.get("id").asLong()).isEqualTo(first.getId());
+        assertThat(line.get("customer").asText()).isEqualTo("Edson");
+        assertThat(line.get("loanDate").asText()).isEqualTo("2020-01-10");
+        assertThat(line.get("bookIsbn").asText()).isEqualTo("123");
+        assertThat(objectMapper.readTree(lines[1]).get("id").asLong()).isEqualTo(second.getId());
+    }
+
+    @Test
+    @DisplayName("Must export the filtered loans as CSV escaping commas and quotes")
+    public void exportCsvTest() throws Exception {
+        Book book = persistBook("123");
+        Book other = persistBook("456");
+        Loan loan = persistLoan(book, "Silva, \"Ed\"", LocalDate.of(2020, 1, 10));
+        persistLoan(book, "Maria", LocalDate.of(2019, 12, 31));
+        persistLoan(other, "Joao", LocalDate.of(2020, 1, 15));
+
+        LoanExportFilterDTO filter = LoanExportFilterDTO.builder()
+                .from(LocalDate.of(2020, 1, 1)).to(LocalDate.of(2020, 1, 31)).isbn("123").build();
+        StringWriter out = new StringWriter();
+        long count = service.export(filter, LoanExportService.Format.CSV, out);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(out.toString()).isEqualTo(
+                "id,customer,customer_email,loan_date,returned,book_id,book_title,book_author,book_isbn\n" +
+                loan.getId() + ",\"Silva, \"\"Ed\"\"\",,2020-01-10,false," + book.getId() + ",As aventuras,Fulano,123\n");
+    }
+
+    private Book persistBook(String isbn) {
+        return entityManager.persist(Book.builder().isbn(isbn).author("Fulano").title("As aventuras").build());
+    }
+
+    private Loan persistLoan(Book book, String customer, LocalDate loanDate) {
+        return entityManager.persist(Loan.builder().book(book).customer(customer).loanDate(loanDate).returned(false).build());
+    }
+}
@@ -4,7 +4,10 @@ import br.com.edsontofolo.libraryapi.api.dto.LoanFilterDTO;
 import br.com.edsontofolo.libraryapi.exception.BusinessException;
 import br.com.edsontofolo.libraryapi.model.entity.Book;
 import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+import br.com.edsontofolo.libraryapi.model.projection.LoanDetails;
 import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.impl.BookAvailabilityServiceImpl;
 import br.com.edsontofolo.libraryapi.service.impl.LoanServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,11 +20,19 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
@@ -32,12 +43,18 @@ import static org.mockito.Mockito.*;
 public class LoanServiceTest {
 
     private LoanService service;
+    private BookAvailabilityService availabilityService;
     @MockBean
     private LoanRepository repository;
+    @MockBean
+    private OutboxService outboxService;
+    @MockBean
+    private PlatformTransactionManager transactionManager;
 
     @BeforeEach
     public void setUp() {
-        this.service = new LoanServiceImpl(repository);
+        this.availabilityService = new BookAvailabilityServiceImpl(repository);
+        this.service = new LoanServiceImpl(repository, availabilityService, outboxService, transactionManager);
     }
 
     @Test
@@ -57,11 +74,13 @@ public class LoanServiceTest {
                 .book(book)
                 .build();
 
-        Mockito.when(repository.existsByBookAndNotReturned(book)).thenReturn(false);
         Mockito.when(repository.save(savingLoan)).thenReturn(savedLoan);
 
         Loan loan = service.save(savingLoan);
 
+        assertThat(availabilityService.isLoaned(book.getId())).isTrue();
+        verify(repository, never()).existsByBookAndNotReturned(book);
+
         assertThat(loan.getId()).isEqualTo(savedLoan.getId());
         assertThat(loan.getBook().getId()).isEqualTo(savedLoan.getBook().getId());
         assertThat(loan.getCustomer()).isEqualTo(savedLoan.getCustomer());
@@ -78,7 +97,7 @@ public class LoanServiceTest {
                 .loanDate(LocalDate.now())
                 .build();
 
-        Mockito.when(repository.existsByBookAndNotReturned(book)).thenReturn(true);
+        availabilityService.markLoaned(book.getId());
 
         Throwable ex = catchThrowable(() -> service.save(savingLoan));
 
@@ -123,6 +142,61 @@ public class LoanServiceTest {
         assertThat(updatedLoan.getReturned()).isTrue();
 
         verify(repository).save(loan);
+        verify(outboxService).publish(OutboxEvent.Type.LOAN_RETURNED, loan);
+    }
+
+    @Test
+    @DisplayName("Must make the book available again when the loan is returned")
+    public void returnLoanReleasesBookTest() {
+        Loan loan = createLoan();
+        loan.setId(1L);
+        availabilityService.markLoaned(loan.getBook().getId());
+        loan.setReturned(Boolean.TRUE);
+
+        when(repository.save(loan)).thenReturn(loan);
+        when(repository.existsByBookAndNotReturned(loan.getBook())).thenReturn(false);
+
+        service.update(loan);
+
+        assertThat(availabilityService.isLoaned(loan.getBook().getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Must allow only one of two concurrent loans of the same book")
+    public void concurrentLoansOfSameBookTest() throws Exception {
+        Book book = Book.builder().id(1L).build();
+        when(repository.save(Mockito.any(Loan.class))).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return invocation.getArgument(0);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Loan>> results = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return service.save(Loan.builder().book(book).customer("Edson").loanDate(LocalDate.now()).build());
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int refused = 0;
+        for (Future<Loan> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                created++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(BusinessException.class);
+                refused++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(created).isEqualTo(1);
+        assertThat(refused).isEqualTo(1);
+        verify(repository, times(1)).save(Mockito.any(Loan.class));
     }
 
     public Loan createLoan() {
@@ -151,8 +225,7 @@ public class LoanServiceTest {
         Mockito
                 .when(
                         repository
-                                .findByBookIsbnOrCustomer(Mockito.anyString(),
-                                        Mockito.anyString(),
+                                .findByFilter(Mockito.any(LoanFilterDTO.class),
                                         Mockito.any(PageRequest.class)))
                 .thenReturn(page);
 
@@ -165,4 +238,21 @@ public class LoanServiceTest {
         assertThat(result.getPageable().getPageNumber()).isEqualTo(0);
         assertThat(result.getPageable().getPageSize()).isEqualTo(10);
     }
+
+    @Test
+    @DisplayName("Must filter loan details by properties")
+    public void findLoanDetailsTest() {
+        LoanFilterDTO loanFilterDTO = LoanFilterDTO.builder().customer("Edson").isbn("123").build();
+        LoanDetails details = LoanDetails.builder().id(1L).customer("Edson").bookId(1L).bookIsbn("123").build();
+
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Page<LoanDetails> page = new PageImpl<>(Arrays.asList(details), pageRequest, 1);
+
+        when(repository.findDetailsByFilter(loanFilterDTO, pageRequest)).thenReturn(page);
+
+        Page<LoanDetails> result = service.findDetails(loanFilterDTO, pageRequest);
+
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent()).containsExactly(details);
+    }
 }
@@ -0,0 +1,66 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanStatisticsDTO;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.repository.BookRepository;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.impl.LoanStatisticsEventListener;
+import br.com.edsontofolo.libraryapi.service.impl.LoanStatisticsServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sem a transação do teste: os eventos só chegam depois do commit de cada save
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import({LoanStatisticsServiceImpl.class, LoanStatisticsEventListener.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LoanStatisticsEventListenerTest {
+
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    LoanRepository loanRepository;
+    @Autowired
+    LoanStatisticsService statisticsService;
+
+    @AfterEach
+    public void tearDown() {
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Must update the statistics after loans are created, returned and deleted")
+    public void loanEventsTest() {
+        Book book = bookRepository.save(Book.builder().title("My incredible life").author("Edson").isbn("123").build());
+        Loan loan = loanRepository.save(Loan.builder().book(book).customer("Edson")
+                .loanDate(LocalDate.now().minusDays(LoanService.LOAN_DAYS)).returned(false).build());
+
+        assertThat(statisticsService.byBook(book.getId())).isEqualTo(new LoanStatisticsDTO(1, 1, 1));
+        assertThat(statisticsService.byCustomer("Edson")).isEqualTo(new LoanStatisticsDTO(1, 1, 1));
+
+        loan.setReturned(true);
+        loanRepository.save(loan);
+        assertThat(statisticsService.byBook(book.getId())).isEqualTo(new LoanStatisticsDTO(1, 0, 0));
+
+        loanRepository.delete(loan);
+        assertThat(statisticsService.global()).isEqualTo(new LoanStatisticsDTO(0, 0, 0));
+    }
+}
@@ -0,0 +1,126 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.api.dto.LoanStatisticsDTO;
+import br.com.edsontofolo.libraryapi.model.projection.LoanGroup;
+import br.com.edsontofolo.libraryapi.model.projection.LoanState;
+import br.com.edsontofolo.libraryapi.model.repository.LoanRepository;
+import br.com.edsontofolo.libraryapi.service.impl.LoanStatisticsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class LoanStatisticsServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2020, 1, 10);
+
+    private LoanStatisticsService service;
+    private MutableClock clock;
+    @MockBean
+    private LoanRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock(TODAY);
+        service = new LoanStatisticsServiceImpl(repository, Mockito.mock(PlatformTransactionManager.class), clock);
+    }
+
+    @Test
+    @DisplayName("Must count the loans from the database grouped by book, customer, date and situation")
+    public void rebuildTest() {
+        when(repository.streamGroups()).thenReturn(Stream.of(
+                new LoanGroup(1L, "Edson", TODAY.minusDays(10), true, 5L),
+                new LoanGroup(1L, "Edson", TODAY.minusDays(5), false, 1L),
+                new LoanGroup(2L, "Maria", TODAY, null, 2L)));
+
+        service.rebuild();
+
+        assertThat(service.global()).isEqualTo(new LoanStatisticsDTO(8, 3, 1));
+        assertThat(service.byBook(1L)).isEqualTo(new LoanStatisticsDTO(6, 1, 1));
+        assertThat(service.byCustomer("Maria")).isEqualTo(new LoanStatisticsDTO(2, 2, 0));
+        assertThat(service.byBook(3L)).isEqualTo(new LoanStatisticsDTO(0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Must count the archived loans together with the live ones")
+    public void rebuildWithArchiveTest() {
+        when(repository.streamGroups()).thenReturn(Stream.of(new LoanGroup(1L, "Edson", TODAY, false, 1L)));
+        when(repository.streamArchivedGroups()).thenReturn(Stream.of(new LoanGroup(1L, "Edson", TODAY.minusYears(2), true, 3L)));
+
+        service.rebuild();
+
+        assertThat(service.byBook(1L)).isEqualTo(new LoanStatisticsDTO(4, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Must count a loan and its return")
+    public void addAndReturnTest() {
+        LoanState loan = LoanState.builder().bookId(1L).customer("Edson").loanDate(TODAY).returned(false).build();
+
+        service.added(loan);
+        assertThat(service.byCustomer("Edson")).isEqualTo(new LoanStatisticsDTO(1, 1, 0));
+
+        service.removed(loan);
+        service.added(loan.toBuilder().returned(true).build());
+        assertThat(service.byCustomer("Edson")).isEqualTo(new LoanStatisticsDTO(1, 0, 0));
+        assertThat(service.byBook(1L)).isEqualTo(new LoanStatisticsDTO(1, 0, 0));
+        assertThat(service.global()).isEqualTo(new LoanStatisticsDTO(1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Must turn open loans into overdue loans when the loan days pass")
+    public void overdueTest() {
+        LoanState loan = LoanState.builder().bookId(1L).customer("Edson").loanDate(TODAY).build();
+        service.added(loan);
+
+        clock.today = TODAY.plusDays(LoanService.LOAN_DAYS - 1);
+        assertThat(service.byBook(1L).getOverdue()).isEqualTo(0);
+
+        clock.today = TODAY.plusDays(LoanService.LOAN_DAYS);
+        assertThat(service.byBook(1L)).isEqualTo(new LoanStatisticsDTO(1, 1, 1));
+
+        service.removed(loan);
+        service.added(loan.toBuilder().returned(true).build());
+        assertThat(service.global()).isEqualTo(new LoanStatisticsDTO(1, 0, 0));
+    }
+
+    private static class MutableClock extends Clock {
+        private LocalDate today;
+
+        MutableClock(LocalDate today) {
+            this.today = today;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return today.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
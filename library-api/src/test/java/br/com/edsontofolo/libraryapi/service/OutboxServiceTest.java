@@ -0,0 +1,197 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.config.OutboxProperties;
+import br.com.edsontofolo.libraryapi.model.entity.Book;
+import br.com.edsontofolo.libraryapi.model.entity.Loan;
+import br.com.edsontofolo.libraryapi.model.entity.OutboxEvent;
+import br.com.edsontofolo.libraryapi.model.repository.OutboxEventRepository;
+import br.com.edsontofolo.libraryapi.service.impl.OutboxServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = {
+        "application.outbox.batch-size=2",
+        "application.outbox.max-attempts=2",
+        "application.outbox.poll-interval=1h"
+})
+@Import({OutboxServiceImpl.class, OutboxServiceTest.OutboxTestConfig.class})
+public class OutboxServiceTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(OutboxProperties.class)
+    static class OutboxTestConfig {
+        @Bean
+        public ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        public RecordingConsumer firstConsumer() {
+            return new RecordingConsumer();
+        }
+
+        @Bean
+        public RecordingConsumer secondConsumer() {
+            return new RecordingConsumer();
+        }
+    }
+
+    static class RecordingConsumer implements OutboxEventConsumer {
+        final List<OutboxEvent> received = new ArrayList<>();
+        Long failFor;
+        TransactionTemplate transaction;
+
+        @Override
+        public void consume(OutboxEvent event) {
+            if (event.getAggregateId().equals(failFor) && transaction != null) {
+                transaction.executeWithoutResult(status -> {
+                    throw new IllegalStateException("Consumer unavailable");
+                });
+            }
+            if (event.getAggregateId().equals(failFor)) {
+                throw new IllegalStateException("Consumer unavailable");
+            }
+            received.add(event);
+        }
+    }
+
+    @Autowired
+    OutboxService service;
+    @Autowired
+    OutboxEventRepository repository;
+    @Autowired
+    RecordingConsumer firstConsumer;
+    @Autowired
+    RecordingConsumer secondConsumer;
+    @Autowired
+    MeterRegistry registry;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    OutboxProperties properties;
+
+    @BeforeEach
+    public void setUp() {
+        firstConsumer.received.clear();
+        secondConsumer.received.clear();
+        firstConsumer.failFor = null;
+        firstConsumer.transaction = null;
+    }
+
+    @Test
+    @DisplayName("Must deliver the events to every consumer in batches and delete them")
+    public void relayTest() throws Exception {
+        Loan loan = Loan.builder().id(1L).book(Book.builder().id(10L).build()).customer("Edson")
+                .customerEmail("edson@email.com").loanDate(LocalDate.of(2020, 1, 10)).returned(false).build();
+        service.publish(OutboxEvent.Type.LOAN_CREATED, loan);
+        service.publish(OutboxEvent.Type.BOOK_UPDATED, Book.builder().id(10L).title("Title").isbn("123").build());
+        service.publish(OutboxEvent.Type.BOOK_DELETED, Book.builder().id(11L).build());
+        double deliveredBefore = registry.get("outbox.delivered").counter().count();
+
+        int delivered = service.relay();
+
+        assertThat(delivered).isEqualTo(3);
+        assertThat(firstConsumer.received).extracting(OutboxEvent::getEventType).containsExactly(
+                OutboxEvent.Type.LOAN_CREATED, OutboxEvent.Type.BOOK_UPDATED, OutboxEvent.Type.BOOK_DELETED);
+        assertThat(secondConsumer.received).hasSize(3);
+        assertThat(new ObjectMapper().readTree(firstConsumer.received.get(0).getPayload()).get("loanDate").asText())
+                .isEqualTo("2020-01-10");
+        assertThat(repository.count()).isZero();
+        assertThat(registry.get("outbox.delivered").counter().count()).isEqualTo(deliveredBefore + 3);
+        assertThat(registry.get("outbox.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Must keep a failed event for a later attempt and stop after the last attempt")
+    public void retryTest() {
+        service.publish(OutboxEvent.Type.BOOK_CREATED, Book.builder().id(20L).build());
+        service.publish(OutboxEvent.Type.BOOK_CREATED, Book.builder().id(21L).build());
+        firstConsumer.failFor = 20L;
+
+        assertThat(service.relay()).isEqualTo(1);
+
+        OutboxEvent failed = repository.findAll().get(0);
+        assertThat(failed.getAggregateId()).isEqualTo(20L);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isEqualTo("Consumer unavailable");
+        assertThat(failed.getAvailableAt()).isAfter(Instant.now());
+        assertThat(registry.get("outbox.pending").gauge().value()).isEqualTo(1);
+
+        failed.setAvailableAt(Instant.now().minusSeconds(1));
+        assertThat(service.relay()).isZero();
+
+        assertThat(repository.findAll()).extracting(OutboxEvent::getAttempts).containsExactly(2);
+        assertThat(repository.findAll().get(0).getAvailableAt()).isNull();
+        assertThat(registry.get("outbox.dead").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must keep the events while no consumer is registered")
+    public void relayWithoutConsumersTest() {
+        OutboxService withoutConsumers = new OutboxServiceImpl(repository,
+                new StaticListableBeanFactory().getBeanProvider(OutboxEventConsumer.class), properties,
+                transactionManager, new ObjectMapper(), new SimpleMeterRegistry());
+        withoutConsumers.publish(OutboxEvent.Type.BOOK_CREATED, Book.builder().id(40L).build());
+
+        assertThat(withoutConsumers.relay()).isZero();
+
+        assertThat(repository.findAll()).extracting(OutboxEvent::getAggregateId).containsExactly(40L);
+        assertThat(repository.findAll().get(0).getAttempts()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Must keep the retry state when the failing consumer rolls back its own transaction")
+    public void retryAfterConsumerRollbackTest() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            service.publish(OutboxEvent.Type.BOOK_CREATED, Book.builder().id(30L).build());
+            service.publish(OutboxEvent.Type.BOOK_CREATED, Book.builder().id(31L).build());
+        });
+        firstConsumer.failFor = 30L;
+        firstConsumer.transaction = transaction;
+
+        try {
+            assertThat(service.relay()).isEqualTo(1);
+
+            List<OutboxEvent> events = repository.findAll();
+            assertThat(events).extracting(OutboxEvent::getAggregateId).containsExactly(30L);
+            assertThat(events.get(0).getAttempts()).isEqualTo(1);
+            assertThat(events.get(0).getLastError()).isEqualTo("Consumer unavailable");
+        } finally {
+            repository.deleteAll();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.edsontofolo.libraryapi.service;
+
+import br.com.edsontofolo.libraryapi.model.entity.JobCheckpoint;
+import br.com.edsontofolo.libraryapi.model.projection.LateLoan;
+import br.com.edsontofolo.libraryapi.model.repository.JobCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class ScheduleServiceTest {
+
+    private static final String MESSAGE = "late loan";
+
+    private ScheduleService service;
+    @MockBean
+    private LoanService loanService;
+    @MockBean
+    private EmailService emailService;
+    @MockBean
+    private JobCheckpointRepository checkpointRepository;
+
+    @BeforeEach
+    public void setUp() {
+        this.service = new ScheduleService(loanService, emailService, checkpointRepository);
+        ReflectionTestUtils.setField(service, "mensagem", MESSAGE);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "chunkTimeout", Duration.ofSeconds(5));
+        when(emailService.sendMails(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(checkpointRepository.save(any(JobCheckpoint.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Must send late loan mails chunk by chunk, saving the checkpoint after each one")
+    public void sendMailToLateLoansInChunksTest() {
+        when(checkpointRepository.findById(ScheduleService.LATE_LOANS_JOB)).thenReturn(Optional.empty());
+        when(loanService.getLateLoans(null, 2)).thenReturn(Arrays.asList(lateLoan(1L), lateLoan(2L)));
+        when(loanService.getLateLoans(2L, 2)).thenReturn(Collections.singletonList(lateLoan(3L)));
+
+        service.sendMailToLateLoans();
+
+        verify(emailService).sendMails(MESSAGE, Arrays.asList("customer1@email.com", "customer2@email.com"));
+        verify(emailService).sendMails(MESSAGE, Collections.singletonList("customer3@email.com"));
+        verify(loanService, never()).getLateLoans(3L, 2);
+
+        ArgumentCaptor<JobCheckpoint> captor = ArgumentCaptor.forClass(JobCheckpoint.class);
+        verify(checkpointRepository, times(3)).save(captor.capture());
+        JobCheckpoint checkpoint = captor.getValue();
+        assertThat(checkpoint.getJobName()).isEqualTo(ScheduleService.LATE_LOANS_JOB);
+        assertThat(checkpoint.getRunDate()).isEqualTo(LocalDate.now());
+        assertThat(checkpoint.getLastId()).isEqualTo(3L);
+        assertThat(checkpoint.getCompleted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Must not move the checkpoint while the mails of the chunk are not delivered")
+    public void checkpointAfterDeliveryTest() {
+        ReflectionTestUtils.setField(service, "chunkTimeout", Duration.ofMillis(50));
+        when(checkpointRepository.findById(ScheduleService.LATE_LOANS_JOB)).thenReturn(Optional.empty());
+        when(loanService.getLateLoans(null, 2)).thenReturn(Arrays.asList(lateLoan(1L), lateLoan(2L)));
+        when(emailService.sendMails(any(), any())).thenReturn(new CompletableFuture<>());
+
+        Throwable exception = catchThrowable(() -> service.sendMailToLateLoans());
+
+        assertThat(exception).isInstanceOf(IllegalStateException.class)
+                .hasMessage("Late loan mails not delivered within PT0.05S");
+        verify(checkpointRepository, never()).save(any(JobCheckpoint.class));
+    }
+
+    @Test
+    @DisplayName("Must resume an interrupted run of the day from the last committed chunk")
+    public void resumeInterruptedRunTest() {
+        JobCheckpoint interrupted = JobCheckpoint.builder()
+                .jobName(ScheduleService.LATE_LOANS_JOB).runDate(LocalDate.now()).lastId(2L).completed(false).build();
+        when(checkpointRepository.findById(ScheduleService.LATE_LOANS_JOB)).thenReturn(Optional.of(interrupted));
+        when(loanService.getLateLoans(2L, 2)).thenReturn(Collections.singletonList(lateLoan(3L)));
+
+        service.sendMailToLateLoans();
+
+        verify(loanService, never()).getLateLoans(null, 2);
+        verify(emailService).sendMails(MESSAGE, Collections.singletonList("customer3@email.com"));
+        assertThat(interrupted.getCompleted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Must start over when the last run was completed or is from another day")
+    public void startNewRunTest() {
+        JobCheckpoint yesterday = JobCheckpoint.builder()
+                .jobName(ScheduleService.LATE_LOANS_JOB).runDate(LocalDate.now().minusDays(1)).lastId(2L).completed(false).build();
+        when(checkpointRepository.findById(ScheduleService.LATE_LOANS_JOB)).thenReturn(Optional.of(yesterday));
+        when(loanService.getLateLoans(null, 2)).thenReturn(Collections.emptyList());
+
+        service.sendMailToLateLoans();
+
+        verify(loanService).getLateLoans(null, 2);
+        verify(emailService, never()).sendMails(any(), any());
+    }
+
+    private LateLoan lateLoan(Long id) {
+        return LateLoan.builder().id(id).customerEmail("customer" + id + "@email.com").build();
+    }
+}
@@ -1,13 +0,0 @@
-package br.com.edsontofolo.libraryapi.model.repository;
-
-import br.com.edsontofolo.libraryapi.model.entity.Book;
-import org.springframework.data.jpa.repository.JpaRepository;
-
-import java.util.Optional;
-
-public interface BookRepository extends JpaRepository<Book, Long> {
-    boolean existsByIsbn(String isbn);
-
-    Optional<Book> findByIsbn(String isbn);
-
-}
@@ -1,45 +0,0 @@
-package br.com.edsontofolo.libraryapi.service;
-
-import br.com.edsontofolo.libraryapi.model.entity.Loan;
-import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Service;
-
-import java.util.List;
-import java.util.stream.Collectors;
-
-@Service
-@RequiredArgsConstructor
-public class ScheduleService {
-
-    private static final String CRON_LATE_LOANS = "0 0 0 1/1 * ?";
-
-    /**
-     * @Value pega do arquivo application.properties
-     */
-    @Value("${application.mail.lateloans.message}")
-    private String mensagem;
-
-    private final LoanService loanService;
-    private final EmailService emailService;
-
-    @Scheduled(cron = CRON_LATE_LOANS)
-    public void sendMailToLateLoans() {
-        List<Loan> allLateLoans = loanService.getAllLateLoans();
-        List<String> emails = allLateLoans.stream()
-                .map(loan -> loan.getCustomerEmail())
-                .collect(Collectors.toList());
-
-        emailService.sendMails(mensagem, emails);
-    }
-
-    /**
-     * http://www.cronmaker.com/?1
-     * cron = seg min hr dia mes ano
-     */
-    @Scheduled(cron = "0 40 9 1/1 * ?")
-    public void testeAgendamentoTarefas() {
-        System.out.println("AGENDAMENTO DE TAREFAS EXECUTADO COM SUCESSO");
-    }
-}